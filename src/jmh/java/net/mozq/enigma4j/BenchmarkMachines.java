@@ -0,0 +1,90 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.List;
+import java.util.Random;
+
+import net.mozq.enigma4j.machine.EnigmaFeature;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Fixed machines and messages for the benchmarks.
+ */
+final class BenchmarkMachines {
+	
+	/** Plugboard of 10 pairs */
+	static final String PLUGBOARD = "AN EZ HK IJ LR MQ OT PV SW UX";
+	
+	/** Seed */
+	private static final long SEED = 20211110L;
+	
+	private BenchmarkMachines() {
+		// NOP
+	}
+	
+	/**
+	 * Creates a machine with the first rotors and reflector of the specification.
+	 * 
+	 * The plugboard is set only if the machine has a plugboard.
+	 * 
+	 * @param machineName machine name
+	 * @param plugboard true to set the plugboard
+	 * @return machine
+	 */
+	static EnigmaMachine machine(String machineName, boolean plugboard) {
+		EnigmaMachine machine = Enigma.machine(machineName);
+		EnigmaMachineSpec spec = machine.spec();
+		int size = spec.letters().length();
+		Random random = new Random(SEED);
+		
+		List<String> rotorNames = spec.rotorNames();
+		for (int slotNo = 1; slotNo <= spec.rotorSlotCount(); slotNo++) {
+			machine.rotor(slotNo, rotorNames.get(slotNo - 1), 1 + random.nextInt(size), 1 + random.nextInt(size));
+		}
+		machine.reflector(spec.reflectorNames().get(0), 1 + random.nextInt(size), 1 + random.nextInt(size));
+		
+		if (plugboard && spec.hasFeature(EnigmaFeature.PLUGBOARD)) {
+			machine.plugboard(PLUGBOARD);
+		}
+		return machine;
+	}
+	
+	/**
+	 * Creates a random message.
+	 * 
+	 * The message contains a space in every 8 letters unless the handling is EXCEPTION.
+	 * 
+	 * @param spec machine specification
+	 * @param length length
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return message
+	 */
+	static String message(EnigmaMachineSpec spec, int length, UnsupportedLetterHandling unsupportedLetterHandling) {
+		String letters = spec.letters();
+		boolean spaces = (unsupportedLetterHandling != UnsupportedLetterHandling.EXCEPTION);
+		Random random = new Random(SEED);
+		
+		char[] message = new char[length];
+		for (int i = 0; i < length; i++) {
+			message[i] = (spaces && i % 8 == 7) ? ' ' : letters.charAt(random.nextInt(letters.length()));
+		}
+		return String.valueOf(message);
+	}
+}
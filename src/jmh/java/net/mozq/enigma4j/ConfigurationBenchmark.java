@@ -0,0 +1,100 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.mozq.enigma4j.machine.CompiledEnigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.scrambler.Reflector;
+import net.mozq.enigma4j.scrambler.Rotor;
+import net.mozq.enigma4j.scrambler.WiringPair;
+
+/**
+ * Cost of building the configurations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationBenchmark {
+	
+	/** Machine */
+	private EnigmaMachine machine;
+	
+	/** Letters */
+	private String letters;
+	
+	@Setup
+	public void setup() {
+		this.machine = BenchmarkMachines.machine("I", true);
+		this.letters = this.machine.spec().letters();
+	}
+	
+	@Benchmark
+	public Rotor ring() {
+		return Enigma.I.I.ring(13);
+	}
+	
+	@Benchmark
+	public EnigmaMachine plugboard() {
+		return this.machine.plugboard(BenchmarkMachines.PLUGBOARD);
+	}
+	
+	@Benchmark
+	public EnigmaMachine plugboardUhr() {
+		return this.machine.plugboard(BenchmarkMachines.PLUGBOARD, 27);
+	}
+	
+	@Benchmark
+	public String pairsToWiringUhr() {
+		return WiringPair.pairsToWiringUhr(this.letters, WiringPair.toPairs(BenchmarkMachines.PLUGBOARD), 27);
+	}
+	
+	@Benchmark
+	public Reflector ukwD() {
+		return Enigma.I.UKW_D("AZ BC DE FG HI KL MN OP QR ST UV WX");
+	}
+	
+	@Benchmark
+	public EnigmaMachine machine() {
+		return Enigma.I.machine()
+				.reflector(Enigma.I.UKW_B)
+				.rotor(3, Enigma.I.II.ring(24), 'A')
+				.rotor(2, Enigma.I.I.ring(13), 'B')
+				.rotor(1, Enigma.I.III.ring(22), 'L')
+				.plugboard(BenchmarkMachines.PLUGBOARD);
+	}
+	
+	@Benchmark
+	public CompiledEnigma compile() {
+		return this.machine.compile();
+	}
+}
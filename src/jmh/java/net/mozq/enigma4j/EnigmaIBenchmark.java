@@ -0,0 +1,91 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Translation of the Enigma I with the Uhr and the UKW-D.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnigmaIBenchmark {
+	
+	/** Length of the message (16 B to 16 MB) */
+	@Param({ "16", "1024", "65536", "1048576", "16777216" })
+	public int messageLength;
+	
+	/** Uhr (Uhr setting 27) */
+	@Param({ "false", "true" })
+	public boolean uhr;
+	
+	/** UKW-D instead of UKW-B */
+	@Param({ "false", "true" })
+	public boolean ukwD;
+	
+	/** Tracker (the tracker does nothing) */
+	@Param({ "false", "true" })
+	public boolean tracker;
+	
+	/** Machine */
+	private EnigmaMachine machine;
+	
+	/** Message */
+	private String message;
+	
+	@Setup
+	public void setup() {
+		this.machine = Enigma.I.machine()
+				.rotor(3, Enigma.I.II.ring(24), 'A')
+				.rotor(2, Enigma.I.I.ring(13), 'B')
+				.rotor(1, Enigma.I.III.ring(22), 'L');
+		this.machine.reflector(this.ukwD ? Enigma.I.UKW_D("AZ BC DE FG HI KL MN OP QR ST UV WX") : Enigma.I.UKW_B);
+		if (this.uhr) {
+			this.machine.plugboard(BenchmarkMachines.PLUGBOARD, 27);
+		} else {
+			this.machine.plugboard(BenchmarkMachines.PLUGBOARD);
+		}
+		if (this.tracker) {
+			this.machine.tracker((m, s, p, ff, ft, bf, bt) -> { });
+		}
+		this.message = BenchmarkMachines.message(this.machine.spec(), this.messageLength, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	@Benchmark
+	public String translate() {
+		return this.machine.translate(this.message);
+	}
+}
@@ -0,0 +1,85 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.mozq.enigma4j.machine.CompiledEnigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Compares the compiled machine with the compiled machine whose engine is defined as a hidden class.
+ * 
+ * The hidden class engine is defined on Java 17 or later, otherwise both are the same.
+ * The M4 of the benchmark machines has a turnable rotor in the fourth slot, so its compiled machine uses the generic engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HiddenEngineBenchmark {
+	
+	/** Machine name */
+	@Param({ "I", "M4", "G-312", "Z" })
+	public String machineName;
+	
+	/** Length of the message */
+	@Param({ "1024", "65536" })
+	public int messageLength;
+	
+	/** Compiled machine */
+	private CompiledEnigma compiled;
+	
+	/** Compiled machine with the hidden class engine */
+	private CompiledEnigma hidden;
+	
+	/** Message */
+	private String message;
+	
+	@Setup
+	public void setup() {
+		EnigmaMachine machine = BenchmarkMachines.machine(this.machineName, true);
+		this.compiled = machine.compile();
+		this.hidden = machine.compileHidden();
+		this.message = BenchmarkMachines.message(machine.spec(), this.messageLength, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	@Benchmark
+	public String compiled() {
+		return this.compiled.translate(this.message);
+	}
+	
+	@Benchmark
+	public String hidden() {
+		return this.hidden.translate(this.message);
+	}
+}
@@ -0,0 +1,91 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Translation of all the machines.
+ * 
+ * The full parameter space is large. Narrow it with -p, e.g.
+ * gradle jmh -Pjmh.args='TranslateBenchmark -p machineName=I,M4 -p messageLength=1024'
+ * The plugboard parameter has no effect on the machines without a plugboard.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranslateBenchmark {
+	
+	/** Machine name */
+	@Param({ "A-133", "D", "I", "Norway", "Sonder", "M3", "M4", "G", "G-312", "G-260", "G-111",
+			"K", "Swiss-K", "KD", "Railway", "T", "Z", "Spanish-D", "Spanish-F", "Spanish-Delta", "Spanish-S" })
+	public String machineName;
+	
+	/** Length of the message (16 B to 16 MB) */
+	@Param({ "16", "1024", "65536", "1048576", "16777216" })
+	public int messageLength;
+	
+	/** Plugboard */
+	@Param({ "false", "true" })
+	public boolean plugboard;
+	
+	/** Tracker (the tracker does nothing) */
+	@Param({ "false", "true" })
+	public boolean tracker;
+	
+	/** Unsupported letter handling */
+	@Param({ "PATH_THROUGH", "REMOVAL", "EXCEPTION" })
+	public UnsupportedLetterHandling unsupportedLetterHandling;
+	
+	/** Machine */
+	private EnigmaMachine machine;
+	
+	/** Message */
+	private String message;
+	
+	@Setup
+	public void setup() {
+		this.machine = BenchmarkMachines.machine(this.machineName, this.plugboard);
+		if (this.tracker) {
+			this.machine.tracker((m, s, p, ff, ft, bf, bt) -> { });
+		}
+		this.message = BenchmarkMachines.message(this.machine.spec(), this.messageLength, this.unsupportedLetterHandling);
+	}
+	
+	@Benchmark
+	public String translate() {
+		return this.machine.translate(this.message, this.unsupportedLetterHandling);
+	}
+}
@@ -0,0 +1,107 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.mozq.enigma4j.Enigma;
+
+/**
+ * Compares the lockstep translation with the scalar translation of each message.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class LockstepTranslatorBenchmark {
+	
+	/** Machine name (26 letters and 10 letters) */
+	@Param({ "M3", "Z" })
+	public String machineName;
+	
+	/** Count of the messages */
+	@Param({ "1024" })
+	public int messageCount;
+	
+	/** Length of each message */
+	@Param({ "256" })
+	public int messageLength;
+	
+	/** Enigma machine */
+	private EnigmaMachine machine;
+	
+	/** Lockstep translator */
+	private LockstepTranslator translator;
+	
+	/** Messages */
+	private List<String> messages;
+	
+	@Setup
+	public void setup() {
+		this.machine = Enigma.machine(this.machineName);
+		String letters = this.machine.spec().letters();
+		int size = letters.length();
+		
+		List<String> rotorNames = this.machine.spec().rotorNames();
+		for (int slotNo = 1; slotNo <= this.machine.spec().rotorSlotCount(); slotNo++) {
+			this.machine.rotor(slotNo, rotorNames.get(slotNo - 1), slotNo, size - slotNo);
+		}
+		this.machine.reflector(this.machine.spec().reflectorNames().get(0));
+		
+		this.translator = LockstepTranslator.of(this.machine);
+		
+		Random random = new Random(20211103L);
+		this.messages = new ArrayList<>(this.messageCount);
+		for (int m = 0; m < this.messageCount; m++) {
+			StringBuilder sb = new StringBuilder(this.messageLength);
+			for (int i = 0; i < this.messageLength; i++) {
+				sb.append(letters.charAt(random.nextInt(size)));
+			}
+			this.messages.add(sb.toString());
+		}
+	}
+	
+	@Benchmark
+	public void scalar(Blackhole blackhole) {
+		for (String message : this.messages) {
+			blackhole.consume(this.machine.translate(message, UnsupportedLetterHandling.PATH_THROUGH));
+		}
+	}
+	
+	@Benchmark
+	public List<String> lockstep() {
+		return this.translator.translate(this.messages, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+}
@@ -0,0 +1,102 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.mozq.enigma4j.Enigma;
+
+/**
+ * Compares the untraced translation with the compiled machine (no tracking at all) and the traced translation.
+ * The untraced machine compiles itself once the warmup has translated enough letters,
+ * so the untraced translation should then be the same as the compiled machine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackerBenchmark {
+	
+	/** Length of the message */
+	@Param({ "64", "4096" })
+	public int messageLength;
+	
+	/** Untraced machine */
+	private EnigmaMachine untraced;
+	
+	/** Compiled machine */
+	private CompiledEnigma compiled;
+	
+	/** Traced machine (the tracker does nothing) */
+	private EnigmaMachine traced;
+	
+	/** Message */
+	private String message;
+	
+	@Setup
+	public void setup() {
+		this.untraced = machine();
+		this.compiled = machine().compile();
+		this.traced = machine().tracker((m, s, p, ff, ft, bf, bt) -> { });
+		
+		Random random = new Random(20211107L);
+		StringBuilder sb = new StringBuilder(this.messageLength);
+		for (int i = 0; i < this.messageLength; i++) {
+			sb.append((char)('A' + random.nextInt(26)));
+		}
+		this.message = sb.toString();
+	}
+	
+	private static EnigmaMachine machine() {
+		return Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z')
+				.plugboard("AN EZ HK IJ LR MQ OT PV SW UX");
+	}
+	
+	@Benchmark
+	public String untraced() {
+		return this.untraced.translate(this.message);
+	}
+	
+	@Benchmark
+	public String compiled() {
+		return this.compiled.translate(this.message);
+	}
+	
+	@Benchmark
+	public String traced() {
+		return this.traced.translate(this.message);
+	}
+}
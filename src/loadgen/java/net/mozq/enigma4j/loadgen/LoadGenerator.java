@@ -0,0 +1,313 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.loadgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.Alphabet;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+import net.mozq.enigma4j.metrics.EnigmaMetrics;
+
+/**
+ * Synthetic traffic load generator.
+ * 
+ * This creates a pool of random keys (machine configurations of the mixed models),
+ * and translates random messages with random keys from many threads.
+ * Each message is translated with PATH_THROUGH or REMOVAL handling at random.
+ * 
+ * The keys and the messages are generated from the seed, so the same seed generates the same traffic.
+ * 
+ * Run: gradle loadgen [-Ploadgen.args='--threads 8 --keys 1000 --messages 10000 --seed 1']
+ */
+public final class LoadGenerator {
+	
+	/** Count of the threads */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	/** Count of the keys */
+	private int keys = 1000;
+	
+	/** Count of the messages per thread */
+	private long messages = 10000;
+	
+	/** Count of the warmup messages per thread (not measured) */
+	private long warmupMessages = 1000;
+	
+	/** Model names */
+	private List<String> models = Enigma.machineNames();
+	
+	/** Message generator */
+	private MessageGenerator messageGenerator = new MessageGenerator(256, 1.0, 1 << 20);
+	
+	/** Seed */
+	private long seed = 0;
+	
+	/**
+	 * Constructs with the default settings.
+	 */
+	public LoadGenerator() {
+		// NOP
+	}
+	
+	/**
+	 * Set the count of the threads.
+	 * 
+	 * @param threads count of the threads
+	 * @return this instance
+	 */
+	public LoadGenerator threads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Threads is out of range. threads: " + threads);
+		}
+		
+		this.threads = threads;
+		return this;
+	}
+	
+	/**
+	 * Set the count of the keys.
+	 * 
+	 * @param keys count of the keys
+	 * @return this instance
+	 */
+	public LoadGenerator keys(int keys) {
+		if (keys <= 0) {
+			throw new IllegalArgumentException("Keys is out of range. keys: " + keys);
+		}
+		
+		this.keys = keys;
+		return this;
+	}
+	
+	/**
+	 * Set the count of the messages per thread.
+	 * 
+	 * @param messages count of the messages
+	 * @return this instance
+	 */
+	public LoadGenerator messages(long messages) {
+		if (messages < 0) {
+			throw new IllegalArgumentException("Messages is out of range. messages: " + messages);
+		}
+		
+		this.messages = messages;
+		return this;
+	}
+	
+	/**
+	 * Set the count of the warmup messages per thread.
+	 * 
+	 * @param warmupMessages count of the warmup messages
+	 * @return this instance
+	 */
+	public LoadGenerator warmupMessages(long warmupMessages) {
+		if (warmupMessages < 0) {
+			throw new IllegalArgumentException("Warmup messages is out of range. warmupMessages: " + warmupMessages);
+		}
+		
+		this.warmupMessages = warmupMessages;
+		return this;
+	}
+	
+	/**
+	 * Set the model names.
+	 * 
+	 * @param models model names
+	 * @return this instance
+	 */
+	public LoadGenerator models(List<String> models) {
+		if (models == null || models.isEmpty()) {
+			throw new IllegalArgumentException("Models cannot be empty.");
+		}
+		for (String model : models) {
+			if (Enigma.machineSpec(model) == null) {
+				throw new IllegalArgumentException("Unknown model. model: " + model);
+			}
+		}
+		
+		this.models = new ArrayList<>(models);
+		return this;
+	}
+	
+	/**
+	 * Set the message generator.
+	 * 
+	 * @param messageGenerator message generator
+	 * @return this instance
+	 */
+	public LoadGenerator messageGenerator(MessageGenerator messageGenerator) {
+		if (messageGenerator == null) {
+			throw new IllegalArgumentException("Message generator cannot be null.");
+		}
+		
+		this.messageGenerator = messageGenerator;
+		return this;
+	}
+	
+	/**
+	 * Set the seed.
+	 * 
+	 * @param seed seed
+	 * @return this instance
+	 */
+	public LoadGenerator seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+	
+	/**
+	 * Generates the load, and returns the report.
+	 * 
+	 * @return report
+	 * @throws InterruptedException thrown when interrupted
+	 */
+	public LoadReport run() throws InterruptedException {
+		// Keys
+		Random keyRandom = new Random(this.seed);
+		EnigmaMachineSpec[] specs = new EnigmaMachineSpec[this.keys];
+		long[] keySeeds = new long[this.keys];
+		for (int k = 0; k < this.keys; k++) {
+			specs[k] = Enigma.machineSpec(this.models.get(keyRandom.nextInt(this.models.size())));
+			keySeeds[k] = keyRandom.nextLong();
+		}
+		
+		EnigmaMetrics metrics = new EnigmaMetrics();
+		CountDownLatch ready = new CountDownLatch(this.threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		
+		Thread[] workers = new Thread[this.threads];
+		for (int t = 0; t < this.threads; t++) {
+			Random random = new Random(this.seed + 0x9E3779B97F4A7C15L * (t + 1));
+			workers[t] = new Thread(() -> {
+				try {
+					// Each thread has own machines of the same keys
+					EnigmaMachine[] machines = new EnigmaMachine[specs.length];
+					for (int k = 0; k < machines.length; k++) {
+						machines[k] = RandomMachines.machine(specs[k], new Random(keySeeds[k]));
+					}
+					
+					translate(machines, random, this.warmupMessages, null);
+					ready.countDown();
+					start.await();
+					translate(machines, random, this.messages, metrics);
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+					ready.countDown();
+				}
+			}, "enigma4j-loadgen-" + t);
+			workers[t].start();
+		}
+		
+		ready.await();
+		long startNanos = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		
+		if (failure.get() != null) {
+			throw new IllegalStateException("Load generation failed.", failure.get());
+		}
+		return new LoadReport(this.threads, elapsedNanos, metrics.snapshot());
+	}
+	
+	/**
+	 * Translates the random messages with the random keys.
+	 * 
+	 * @param machines machines of the keys
+	 * @param random random
+	 * @param count count of the messages
+	 * @param metrics metrics to record, null for the warmup
+	 */
+	private void translate(EnigmaMachine[] machines, Random random, long count, EnigmaMetrics metrics) {
+		for (long i = 0; i < count; i++) {
+			EnigmaMachine machine = machines[random.nextInt(machines.length)];
+			EnigmaMachineSpec spec = machine.spec();
+			UnsupportedLetterHandling handling = random.nextBoolean() ? UnsupportedLetterHandling.PATH_THROUGH : UnsupportedLetterHandling.REMOVAL;
+			String message = this.messageGenerator.message(spec, random);
+			
+			long start = System.nanoTime();
+			machine.translate(message, handling);
+			long latency = System.nanoTime() - start;
+			
+			if (metrics != null) {
+				int unsupported = unsupportedCount(spec.alphabet(), message);
+				metrics.record(spec.name(), message.length() - unsupported, unsupported, handling, latency);
+			}
+		}
+	}
+	
+	private static int unsupportedCount(Alphabet alphabet, String message) {
+		int count = 0;
+		for (int i = 0; i < message.length(); i++) {
+			if (!alphabet.contains(message.charAt(i))) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Runs the load generator.
+	 * 
+	 * Options: --threads N, --keys N, --messages N (per thread), --warmup N (per thread),
+	 * --models NAME,NAME,..., --median-length N, --sigma X, --max-length N, --seed N
+	 * 
+	 * @param args options
+	 * @throws InterruptedException thrown when interrupted
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		LoadGenerator generator = new LoadGenerator();
+		int medianLength = 256;
+		double sigma = 1.0;
+		int maxLength = 1 << 20;
+		
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (args.length <= i + 1) {
+				throw new IllegalArgumentException("Option value is missing. option: " + option);
+			}
+			String value = args[++i];
+			
+			switch (option) {
+			case "--threads": generator.threads(Integer.parseInt(value)); break;
+			case "--keys": generator.keys(Integer.parseInt(value)); break;
+			case "--messages": generator.messages(Long.parseLong(value)); break;
+			case "--warmup": generator.warmupMessages(Long.parseLong(value)); break;
+			case "--models": generator.models(Arrays.asList(value.split(","))); break;
+			case "--median-length": medianLength = Integer.parseInt(value); break;
+			case "--sigma": sigma = Double.parseDouble(value); break;
+			case "--max-length": maxLength = Integer.parseInt(value); break;
+			case "--seed": generator.seed(Long.parseLong(value)); break;
+			default: throw new IllegalArgumentException("Unknown option. option: " + option);
+			}
+		}
+		generator.messageGenerator(new MessageGenerator(medianLength, sigma, maxLength));
+		
+		System.out.print(generator.run());
+	}
+}
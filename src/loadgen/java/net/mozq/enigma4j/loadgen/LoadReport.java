@@ -0,0 +1,141 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.loadgen;
+
+import java.util.Locale;
+
+import net.mozq.enigma4j.metrics.MetricsSnapshot;
+
+/**
+ * Report of a load generation.
+ */
+public final class LoadReport {
+	
+	/** Percentiles in the report */
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+	
+	/** Count of the threads */
+	private final int threads;
+	
+	/** Elapsed time (nanoseconds) */
+	private final long elapsedNanos;
+	
+	/** Metrics snapshot */
+	private final MetricsSnapshot snapshot;
+	
+	/**
+	 * Constructs with the results.
+	 * 
+	 * @param threads count of the threads
+	 * @param elapsedNanos elapsed time (nanoseconds)
+	 * @param snapshot metrics snapshot
+	 */
+	LoadReport(int threads, long elapsedNanos, MetricsSnapshot snapshot) {
+		this.threads = threads;
+		this.elapsedNanos = elapsedNanos;
+		this.snapshot = snapshot;
+	}
+	
+	/**
+	 * Returns the count of the threads.
+	 * 
+	 * @return count of the threads
+	 */
+	public int threads() {
+		return this.threads;
+	}
+	
+	/**
+	 * Returns the elapsed time.
+	 * 
+	 * @return elapsed time (nanoseconds)
+	 */
+	public long elapsedNanos() {
+		return this.elapsedNanos;
+	}
+	
+	/**
+	 * Returns the metrics snapshot, which has the counts and the latency histogram per model.
+	 * 
+	 * @return metrics snapshot
+	 */
+	public MetricsSnapshot snapshot() {
+		return this.snapshot;
+	}
+	
+	/**
+	 * Returns the count of the translated messages.
+	 * 
+	 * @return count of the messages
+	 */
+	public long messages() {
+		return this.snapshot.models().values().stream().mapToLong(MetricsSnapshot.Model::messages).sum();
+	}
+	
+	/**
+	 * Returns the count of the enciphered letters.
+	 * 
+	 * @return count of the letters
+	 */
+	public long letters() {
+		return this.snapshot.models().values().stream().mapToLong(MetricsSnapshot.Model::letters).sum();
+	}
+	
+	/**
+	 * Returns the throughput in messages.
+	 * 
+	 * @return messages per second
+	 */
+	public double messagesPerSecond() {
+		return perSecond(messages());
+	}
+	
+	/**
+	 * Returns the throughput in letters.
+	 * 
+	 * @return letters per second
+	 */
+	public double lettersPerSecond() {
+		return perSecond(letters());
+	}
+	
+	private double perSecond(long count) {
+		return (this.elapsedNanos == 0) ? 0 : count * 1e9 / this.elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "threads=%d, elapsed=%.3f s, messages=%d (%.0f/s), letters=%d (%.0f/s)%n",
+				this.threads, this.elapsedNanos / 1e9, messages(), messagesPerSecond(), letters(), lettersPerSecond()));
+		
+		sb.append(String.format(Locale.ROOT, "%-14s %10s %12s %14s", "model", "messages", "letters", "letters/s"));
+		for (double percentile : PERCENTILES) {
+			sb.append(String.format(Locale.ROOT, " %10s", "p" + (percentile == (long)percentile ? String.valueOf((long)percentile) : String.valueOf(percentile)) + " us"));
+		}
+		sb.append(System.lineSeparator());
+		
+		for (MetricsSnapshot.Model model : this.snapshot.models().values()) {
+			sb.append(String.format(Locale.ROOT, "%-14s %10d %12d %14.0f", model.model(), model.messages(), model.letters(), perSecond(model.letters())));
+			for (double percentile : PERCENTILES) {
+				sb.append(String.format(Locale.ROOT, " %10.1f", model.latencyPercentile(percentile) / 1e3));
+			}
+			sb.append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+}
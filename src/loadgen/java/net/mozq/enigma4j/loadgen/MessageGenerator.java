@@ -0,0 +1,106 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.loadgen;
+
+import java.util.Random;
+
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
+
+/**
+ * Random message generator.
+ * 
+ * The message lengths follow a log-normal distribution (many short messages and a long tail of long messages).
+ * The messages contain lower case letters, spaces and punctuations, so that the unsupported letter handling is exercised.
+ */
+public final class MessageGenerator {
+	
+	/** Punctuations and digits */
+	private static final String PUNCTUATIONS = ".,-?!:'0123456789";
+	
+	/** Median length */
+	private final int medianLength;
+	
+	/** Standard deviation of the logarithm of the length */
+	private final double sigma;
+	
+	/** Maximum length */
+	private final int maxLength;
+	
+	/**
+	 * Constructs with the distribution of the lengths.
+	 * 
+	 * @param medianLength median length
+	 * @param sigma standard deviation of the logarithm of the length (0 for the fixed length)
+	 * @param maxLength maximum length
+	 */
+	public MessageGenerator(int medianLength, double sigma, int maxLength) {
+		if (medianLength <= 0) {
+			throw new IllegalArgumentException("Median length is out of range. medianLength: " + medianLength);
+		}
+		if (!(0 <= sigma)) {
+			throw new IllegalArgumentException("Sigma is out of range. sigma: " + sigma);
+		}
+		if (maxLength < medianLength) {
+			throw new IllegalArgumentException("Max length is out of range. maxLength: " + maxLength);
+		}
+		
+		this.medianLength = medianLength;
+		this.sigma = sigma;
+		this.maxLength = maxLength;
+	}
+	
+	/**
+	 * Returns a random length.
+	 * 
+	 * @param random random
+	 * @return length (1 to the maximum length)
+	 */
+	public int length(Random random) {
+		double length = this.medianLength * Math.exp(this.sigma * random.nextGaussian());
+		return (int)Math.max(1, Math.min(this.maxLength, Math.round(length)));
+	}
+	
+	/**
+	 * Creates a random message.
+	 * 
+	 * About 70% of the message are upper case letters, 15% lower case letters, 12% spaces and 3% punctuations.
+	 * 
+	 * @param spec machine specification
+	 * @param random random
+	 * @return message
+	 */
+	public String message(EnigmaMachineSpec spec, Random random) {
+		String letters = spec.letters();
+		int length = length(random);
+		
+		char[] message = new char[length];
+		for (int i = 0; i < length; i++) {
+			int r = random.nextInt(100);
+			char letter = letters.charAt(random.nextInt(letters.length()));
+			if (r < 70) {
+				message[i] = letter;
+			} else if (r < 85) {
+				message[i] = Character.toLowerCase(letter);
+			} else if (r < 97) {
+				message[i] = ' ';
+			} else {
+				message[i] = PUNCTUATIONS.charAt(random.nextInt(PUNCTUATIONS.length()));
+			}
+		}
+		return String.valueOf(message);
+	}
+}
@@ -0,0 +1,127 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.loadgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.mozq.enigma4j.machine.EnigmaFeature;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
+import net.mozq.enigma4j.scrambler.Reflector;
+import net.mozq.enigma4j.scrambler.WiringPair;
+
+/**
+ * Random but valid machine configurations.
+ * 
+ * The same random seed creates the same configuration.
+ */
+public final class RandomMachines {
+	
+	/** UKW-D letters without the fixed pair (UKW-D notation) */
+	private static final String UKW_D_LETTERS = "AZXWVUTSRQPONMLKIHGFEDCB";
+	
+	/** Count of the Uhr pairs */
+	private static final int UHR_PAIR_COUNT = 10;
+	
+	/** Count of the Uhr settings */
+	private static final int UHR_SETTING_COUNT = 40;
+	
+	private RandomMachines() {
+		// NOP
+	}
+	
+	/**
+	 * Creates a randomly configured machine.
+	 * 
+	 * The rotor order, the ring settings and the positions are random.
+	 * If the machine has the fixed rotors (e.g. the Enigma M4), one of them is set in the last slot
+	 * and the turnable rotors are set in the other slots.
+	 * If the machine supports them, the UKW-D is rewired randomly for half of the machines,
+	 * and the Uhr is set with a random setting for half of the machines, otherwise the plugboard has 0 to 13 random pairs.
+	 * 
+	 * @param spec machine specification
+	 * @param random random
+	 * @return machine
+	 */
+	public static EnigmaMachine machine(EnigmaMachineSpec spec, Random random) {
+		EnigmaMachine machine = new EnigmaMachine(spec);
+		int size = spec.letters().length();
+		
+		int slotCount = spec.rotorSlotCount();
+		List<String> rotorNames = new ArrayList<>();
+		List<String> fixedRotorNames = new ArrayList<>();
+		for (String rotorName : spec.rotorNames()) {
+			if (spec.rotor(rotorName).isTurnable()) {
+				rotorNames.add(rotorName);
+			} else {
+				fixedRotorNames.add(rotorName);
+			}
+		}
+		Collections.shuffle(rotorNames, random);
+		if (!fixedRotorNames.isEmpty() && slotCount - 1 <= rotorNames.size()) {
+			// The fixed rotor (e.g. Beta and Gamma of the Enigma M4) goes in the last slot, next to the reflector
+			rotorNames.add(slotCount - 1, fixedRotorNames.get(random.nextInt(fixedRotorNames.size())));
+		} else {
+			rotorNames.addAll(fixedRotorNames);
+			Collections.shuffle(rotorNames, random);
+		}
+		for (int slotNo = 1; slotNo <= slotCount; slotNo++) {
+			machine.rotor(slotNo, rotorNames.get(slotNo - 1), 1 + random.nextInt(size), 1 + random.nextInt(size));
+		}
+		
+		if (spec.hasFeature(EnigmaFeature.UKW_D) && random.nextBoolean()) {
+			machine.reflector(Reflector.UKW_D(pairs(UKW_D_LETTERS, UKW_D_LETTERS.length() / 2, random)));
+		} else {
+			List<String> reflectorNames = spec.reflectorNames();
+			String reflectorName = reflectorNames.get(random.nextInt(reflectorNames.size()));
+			machine.reflector(reflectorName, 1 + random.nextInt(size), 1 + random.nextInt(size));
+		}
+		
+		if (spec.hasFeature(EnigmaFeature.UHR) && random.nextBoolean()) {
+			machine.plugboard(pairs(spec.letters(), UHR_PAIR_COUNT, random), random.nextInt(UHR_SETTING_COUNT));
+		} else if (spec.hasFeature(EnigmaFeature.PLUGBOARD)) {
+			machine.plugboard(pairs(spec.letters(), random.nextInt(size / 2 + 1), random));
+		}
+		
+		return machine;
+	}
+	
+	/**
+	 * Creates the random wiring pairs.
+	 * 
+	 * @param letters letters
+	 * @param count count of the pairs
+	 * @param random random
+	 * @return wiring pairs
+	 */
+	static List<WiringPair> pairs(String letters, int count, Random random) {
+		List<Character> list = new ArrayList<>();
+		for (char letter : letters.toCharArray()) {
+			list.add(letter);
+		}
+		Collections.shuffle(list, random);
+		
+		List<WiringPair> pairs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			pairs.add(WiringPair.of(list.get(i * 2), list.get(i * 2 + 1)));
+		}
+		return pairs;
+	}
+}
@@ -16,11 +16,17 @@
  */
 package net.mozq.enigma4j;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.EnigmaMachineProvider;
 import net.mozq.enigma4j.machine.EnigmaMachineSpec;
 import net.mozq.enigma4j.machine.model.EnigmaA_133;
 import net.mozq.enigma4j.machine.model.EnigmaD;
@@ -217,39 +223,31 @@ public class Enigma {
 		private Spanish_S() { }
 	}
 	
-	/** Enigma machine specifications */
-	private static final List<EnigmaMachineSpec> MACHINE_SPECS = List.of(
-			A_133.spec(),
-			D.spec(),
-			I.spec(),
-			Norway.spec(),
-			Sonder.spec(),
-			M3.spec(),
-			M4.spec(),
-			G.spec(),
-			G_312.spec(),
-			G_260.spec(),
-			G_111.spec(),
-			K.spec(),
-			Swiss_K.spec(),
-			KD.spec(),
-			Railway.spec(),
-			T.spec(),
-			Z.spec(),
-			Spanish_D.spec(),
-			Spanish_F.spec(),
-			Spanish_Delta.spec(),
-			Spanish_S.spec()
+	/** Built-in machine names */
+	private static final List<String> BUILT_IN_MACHINE_NAMES = List.of(
+			"A-133",
+			"D",
+			"I",
+			"Norway",
+			"Sonder",
+			"M3",
+			"M4",
+			"G",
+			"G-312",
+			"G-260",
+			"G-111",
+			"K",
+			"Swiss-K",
+			"KD",
+			"Railway",
+			"T",
+			"Z",
+			"Spanish-D",
+			"Spanish-F",
+			"Spanish-Delta",
+			"Spanish-S"
 	);
 	
-	/** Enigma machine names */
-	private static final List<String> MACHINE_NAMES = MACHINE_SPECS.stream()
-			.map(v -> v.name()).collect(Collectors.toUnmodifiableList());
-	
-	/** Enigma machine specification map */
-	private static final Map<String, EnigmaMachineSpec> MACHINE_SPEC_MAP = MACHINE_SPECS.stream()
-			.collect(Collectors.toUnmodifiableMap(v -> v.name(), v -> v));
-	
 	
 	/**
 	 * This class has only static methods.
@@ -258,23 +256,121 @@ public class Enigma {
 		// NOP
 	}
 	
+	/**
+	 * Returns the built-in machine specification.
+	 * 
+	 * The model class is initialized (its scramblers are built) on the first use of the machine.
+	 * 
+	 * @param machineName machine name
+	 * @return machine specification, null if not built-in
+	 */
+	private static EnigmaMachineSpec builtInMachineSpec(String machineName) {
+		switch (machineName) {
+		case "A-133": return EnigmaA_133.spec();
+		case "D": return EnigmaD.spec();
+		case "I": return EnigmaI.spec();
+		case "Norway": return EnigmaNorway.spec();
+		case "Sonder": return EnigmaSonder.spec();
+		case "M3": return EnigmaM3.spec();
+		case "M4": return EnigmaM4.spec();
+		case "G": return EnigmaG.spec();
+		case "G-312": return EnigmaG_312.spec();
+		case "G-260": return EnigmaG_260.spec();
+		case "G-111": return EnigmaG_111.spec();
+		case "K": return EnigmaK.spec();
+		case "Swiss-K": return EnigmaSwiss_K.spec();
+		case "KD": return EnigmaKD.spec();
+		case "Railway": return EnigmaRailway.spec();
+		case "T": return EnigmaT.spec();
+		case "Z": return EnigmaZ.spec();
+		case "Spanish-D": return EnigmaSpanish_D.spec();
+		case "Spanish-F": return EnigmaSpanish_F.spec();
+		case "Spanish-Delta": return EnigmaSpanish_Delta.spec();
+		case "Spanish-S": return EnigmaSpanish_S.spec();
+		default: return null;
+		}
+	}
+	
+	/**
+	 * Machines of the providers, discovered on the first use.
+	 */
+	private static final class Providers {
+		
+		/** Providers */
+		private static final List<EnigmaMachineProvider> PROVIDERS = load();
+		
+		/** Enigma machine names (built-in machines first) */
+		private static final List<String> MACHINE_NAMES = machineNames();
+		
+		/** Provided machine specifications by name */
+		private static final Map<String, EnigmaMachineSpec> SPECS = new ConcurrentHashMap<>();
+		
+		private static List<EnigmaMachineProvider> load() {
+			List<EnigmaMachineProvider> providers = new ArrayList<>();
+			for (EnigmaMachineProvider provider : ServiceLoader.load(EnigmaMachineProvider.class)) {
+				providers.add(provider);
+			}
+			return Collections.unmodifiableList(providers);
+		}
+		
+		private static List<String> machineNames() {
+			Set<String> names = new LinkedHashSet<>(BUILT_IN_MACHINE_NAMES);
+			for (EnigmaMachineProvider provider : PROVIDERS) {
+				names.addAll(provider.machineNames());
+			}
+			return List.copyOf(names);
+		}
+		
+		static EnigmaMachineSpec machineSpec(String machineName) {
+			EnigmaMachineSpec spec = SPECS.get(machineName);
+			if (spec != null) {
+				return spec;
+			}
+			
+			for (EnigmaMachineProvider provider : PROVIDERS) {
+				if (provider.machineNames().contains(machineName)) {
+					spec = provider.machineSpec(machineName);
+					if (spec != null) {
+						EnigmaMachineSpec cached = SPECS.putIfAbsent(machineName, spec);
+						return (cached != null) ? cached : spec;
+					}
+				}
+			}
+			return null;
+		}
+	}
+	
 	/**
 	 * List all machine names.
 	 * 
+	 * The built-in machines come first, and the machines of the providers ({@link EnigmaMachineProvider}) follow.
+	 * 
 	 * @return machine name list
 	 */
 	public static List<String> machineNames() {
-		return MACHINE_NAMES;
+		return Providers.MACHINE_NAMES;
 	}
 	
 	/**
 	 * Returns the machine specification.
 	 * 
+	 * The specification is built on the first use.
+	 * The providers are discovered only if the machine is not built-in.
+	 * 
 	 * @param machineName machine name
-	 * @return machine specification
+	 * @return machine specification, null if not found
 	 */
 	public static EnigmaMachineSpec machineSpec(String machineName) {
-		return MACHINE_SPEC_MAP.get(machineName);
+		if (machineName == null) {
+			return null;
+		}
+		
+		EnigmaMachineSpec spec = builtInMachineSpec(machineName);
+		if (spec != null) {
+			return spec;
+		}
+		
+		return Providers.machineSpec(machineName);
 	}
 	
 	/**
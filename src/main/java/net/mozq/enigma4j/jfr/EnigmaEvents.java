@@ -0,0 +1,55 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Guard of the Flight Recorder events.
+ * 
+ * Initializing the first event class registers it to Flight Recorder, which initializes Flight Recorder itself
+ * and takes hundreds of milliseconds. So the events are created only after Flight Recorder is initialized
+ * (a recording is created, or the JVM is started with -XX:StartFlightRecording),
+ * and the application which never records does not pay for it.
+ * 
+ * <pre>
+ * TranslateEvent event = EnigmaEvents.isRecorderInitialized() ? new TranslateEvent() : null;
+ * if (event != null) {
+ *     event.begin();
+ * }
+ * ...
+ * if (event != null &amp;&amp; event.shouldCommit()) {
+ *     ...
+ *     event.commit();
+ * }
+ * </pre>
+ */
+public final class EnigmaEvents {
+	
+	private EnigmaEvents() {
+		// NOP
+	}
+	
+	/**
+	 * Returns whether Flight Recorder is initialized, so the events can be created.
+	 * 
+	 * @return true if initialized
+	 */
+	public static boolean isRecorderInitialized() {
+		return FlightRecorder.isInitialized();
+	}
+}
@@ -0,0 +1,59 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a translation by {@code EnigmaMachine.translate}.
+ * 
+ * This event is disabled by default. Enable "net.mozq.enigma4j.Translate" in the recording settings.
+ */
+@Name("net.mozq.enigma4j.Translate")
+@Label("Enigma Translate")
+@Category("enigma4j")
+@Description("Translation of a text value")
+@Enabled(false)
+@StackTrace(false)
+public final class TranslateEvent extends Event {
+	
+	/** Model name */
+	@Label("Model")
+	public String model;
+	
+	/** Whether translated by the scrambler chain with the tracker */
+	@Label("Traced")
+	public boolean traced;
+	
+	/** Count of the input letters */
+	@Label("Letters In")
+	public long lettersIn;
+	
+	/** Count of the output letters */
+	@Label("Letters Out")
+	public long lettersOut;
+	
+	/** Count of the unsupported letters */
+	@Label("Unsupported Letters")
+	public long unsupportedLetters;
+}
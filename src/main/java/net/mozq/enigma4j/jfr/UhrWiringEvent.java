@@ -0,0 +1,47 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a wiring build by {@code WiringPair.pairsToWiringUhr}.
+ * 
+ * This event is disabled by default. Enable "net.mozq.enigma4j.UhrWiring" in the recording settings.
+ */
+@Name("net.mozq.enigma4j.UhrWiring")
+@Label("Enigma Uhr Wiring Build")
+@Category("enigma4j")
+@Description("Build of a wiring with the Uhr")
+@Enabled(false)
+@StackTrace(false)
+public final class UhrWiringEvent extends Event {
+	
+	/** Count of the letters */
+	@Label("Letters")
+	public int letters;
+	
+	/** Uhr setting */
+	@Label("Uhr Setting")
+	public int uhrSetting;
+}
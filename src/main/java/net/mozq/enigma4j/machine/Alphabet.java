@@ -0,0 +1,262 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.Arrays;
+
+/**
+ * Alphabet.
+ * 
+ * This is the letters of a machine or a scrambler with the dense lookup tables.
+ * A letter of the Latin-1 range (ASCII, "ÅÄÖ" of the 28 letters, the digits of the 10 letters) is looked up
+ * by one array load, including the case folding.
+ * The other letters fall back to the linear scan.
+ * 
+ * If a letter appears twice in the letters (e.g. "-" of UKW-D), the first one is found.
+ * 
+ * This class is immutable.
+ */
+public final class Alphabet {
+	
+	/** Alphabet of 26 letters */
+	public static final Alphabet LETTERS_26 = new Alphabet(EnigmaMachineModel.LETTERS_26);
+	
+	/** Alphabet of 28 letters */
+	public static final Alphabet LETTERS_28 = new Alphabet(EnigmaMachineModel.LETTERS_28);
+	
+	/** Alphabet of 10 letters */
+	public static final Alphabet LETTERS_10 = new Alphabet(EnigmaMachineModel.LETTERS_10);
+	
+	/** Size of the dense lookup tables (Latin-1 range) */
+	private static final int TABLE_SIZE = 256;
+	
+	/** Lower case bit of the code */
+	private static final int LOWER_CASE = 1;
+	
+	/** Letters */
+	private final String letters;
+	
+	/** Letter numbers of the letters in the Latin-1 range (0-based, -1 if not found) */
+	private final int[] numbers;
+	
+	/** Codes of the letters in the Latin-1 range (case folded, -1 if not found) */
+	private final int[] codes;
+	
+	/** Letters by code (upper case and lower case) */
+	private final char[] decodes;
+	
+	/** Whether all letters are in the Latin-1 range */
+	private final boolean latin1;
+	
+	/**
+	 * Constructs with the letters.
+	 * 
+	 * @param letters letters
+	 */
+	private Alphabet(String letters) {
+		this.letters = letters;
+		
+		int len = letters.length();
+		this.numbers = new int[TABLE_SIZE];
+		this.codes = new int[TABLE_SIZE];
+		this.decodes = new char[len * 2];
+		Arrays.fill(this.numbers, -1);
+		for (int number = len - 1; 0 <= number; number--) {
+			// The first one wins
+			char letter = letters.charAt(number);
+			if (letter < TABLE_SIZE) {
+				this.numbers[letter] = number;
+			}
+		}
+		for (int c = 0; c < TABLE_SIZE; c++) {
+			this.codes[c] = encodeSlow((char)c);
+		}
+		boolean latin1 = true;
+		for (int number = 0; number < len; number++) {
+			char letter = letters.charAt(number);
+			this.decodes[number << 1] = letter;
+			this.decodes[(number << 1) | LOWER_CASE] = Character.toLowerCase(letter);
+			latin1 &= (letter < TABLE_SIZE) && (Character.toLowerCase(letter) < TABLE_SIZE);
+		}
+		this.latin1 = latin1;
+	}
+	
+	/**
+	 * Returns the alphabet of the letters.
+	 * 
+	 * @param letters letters
+	 * @return alphabet
+	 */
+	public static Alphabet of(String letters) {
+		if (letters == null) {
+			throw new IllegalArgumentException("Letters cannot be null.");
+		}
+		
+		if (LETTERS_26.letters.equals(letters)) {
+			return LETTERS_26;
+		} else if (LETTERS_28.letters.equals(letters)) {
+			return LETTERS_28;
+		} else if (LETTERS_10.letters.equals(letters)) {
+			return LETTERS_10;
+		}
+		
+		return new Alphabet(letters);
+	}
+	
+	/**
+	 * Returns the letters.
+	 * 
+	 * @return letters
+	 */
+	public String letters() {
+		return this.letters;
+	}
+	
+	/**
+	 * Returns the count of letters.
+	 * 
+	 * @return count of letters
+	 */
+	public int size() {
+		return this.letters.length();
+	}
+	
+	/**
+	 * Returns the number of the letter.
+	 * 
+	 * @param letter letter
+	 * @return number (0-based, -1 if not found)
+	 */
+	public int numberOf(char letter) {
+		if (letter < TABLE_SIZE) {
+			return this.numbers[letter];
+		}
+		
+		return this.letters.indexOf(letter);
+	}
+	
+	/**
+	 * Returns the letter of the number.
+	 * 
+	 * @param number number (0-based)
+	 * @return letter
+	 * @throws IllegalArgumentException If the number is out of range
+	 */
+	public char letterOf(int number) {
+		if (number < 0 || this.letters.length() <= number) {
+			throw new IllegalArgumentException("Number is out of range. number: " + number);
+		}
+		
+		return this.letters.charAt(number);
+	}
+	
+	/**
+	 * Returns whether the letter is supported, ignoring the case.
+	 * 
+	 * @param letter letter
+	 * @return true if supported
+	 */
+	public boolean contains(char letter) {
+		return encode(letter) != -1;
+	}
+	
+	/**
+	 * Returns whether all letters (upper case and lower case) are in the Latin-1 range,
+	 * so they can be translated as single bytes.
+	 * 
+	 * @return true if all letters are in the Latin-1 range
+	 */
+	boolean isLatin1() {
+		return this.latin1;
+	}
+	
+	/**
+	 * Encodes the letter, ignoring the case.
+	 * 
+	 * The code is the number of the upper case letter and the lower case bit,
+	 * use {@link #number(int)} and {@link #decode(int, int)} with it.
+	 * 
+	 * @param letter letter
+	 * @return code (-1 if not supported)
+	 */
+	int encode(char letter) {
+		if (letter < TABLE_SIZE) {
+			return this.codes[letter];
+		}
+		
+		return encodeSlow(letter);
+	}
+	
+	/**
+	 * Returns the number of the code.
+	 * 
+	 * @param code code
+	 * @return number (0-based)
+	 */
+	static int number(int code) {
+		return code >>> 1;
+	}
+	
+	/**
+	 * Decodes the number in the case of the code.
+	 * 
+	 * @param number number (0-based)
+	 * @param code code of the original letter
+	 * @return letter
+	 */
+	char decode(int number, int code) {
+		return this.decodes[(number << 1) | (code & LOWER_CASE)];
+	}
+	
+	private int encodeSlow(char letter) {
+		char upperLetter = Character.toUpperCase(letter);
+		int number = this.letters.indexOf(upperLetter);
+		if (number == -1) {
+			return -1;
+		}
+		
+		return (number << 1) | ((letter != upperLetter) ? LOWER_CASE : 0);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		
+		if (obj == null) {
+			return false;
+		}
+		
+		if (obj.getClass() != getClass()) {
+			return false;
+		}
+		
+		Alphabet o = (Alphabet)obj;
+		return this.letters.equals(o.letters);
+	}
+	
+	@Override
+	public int hashCode() {
+		return this.letters.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return this.letters;
+	}
+}
@@ -0,0 +1,518 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.mozq.enigma4j.jfr.EngineEvent;
+import net.mozq.enigma4j.jfr.EnigmaEvents;
+import net.mozq.enigma4j.scrambler.Plugboard;
+import net.mozq.enigma4j.scrambler.Reflector;
+import net.mozq.enigma4j.scrambler.Rotor;
+import net.mozq.enigma4j.scrambler.Scrambler;
+
+/**
+ * Compiled Enigma machine.
+ * 
+ * This is an immutable snapshot of the configured {@link EnigmaMachine}.
+ * All scramblers are precomputed into flat 0-based wiring tables (ring settings folded in),
+ * so a letter is translated by table lookups only, without the recursion of the scrambler chain.
+ * 
+ * The translated values are the same as {@link EnigmaMachine#translate(String, UnsupportedLetterHandling)},
+ * but the scramble tracker is not called.
+ * 
+ * This class is thread-safe.
+ */
+public final class CompiledEnigma {
+	
+	/** Enigma machine specification */
+	private final EnigmaMachineSpec spec;
+	
+	/** Alphabet */
+	private final Alphabet alphabet;
+	
+	/** Count of letters */
+	private final int size;
+	
+	/** Turnover mechanism */
+	private final TurnoverMechanism turnoverMechanism;
+	
+	/** Entry forward table (plugboard and entry wheel) */
+	private final int[] entryForward;
+	
+	/** Entry backward table (entry wheel and plugboard) */
+	private final int[] entryBackward;
+	
+	/** Wheels (rotors from the slot 1, and the reflector at the last) */
+	private final Scrambler[] wheels;
+	
+	/** Wheel forward tables [wheel][position * size + number] */
+	private final int[][] wheelForward;
+	
+	/** Wheel backward tables [wheel][position * size + number] */
+	private final int[][] wheelBackward;
+	
+	/** Wheel turnable flags */
+	private final boolean[] turnable;
+	
+	/** Wheel turnover positions [wheel][position] */
+	private final boolean[][] turnover;
+	
+	/** Whether the wheel turnover engages the next wheel (regular turnover mechanism) */
+	private final boolean[] engageable;
+	
+	/** Slot numbers of the wheels (0 for the reflector) */
+	private final int[] slotNos;
+	
+	/** Starting positions (0-based) */
+	private final int[] positions;
+	
+	/** Engine */
+	private final Engine engine;
+	
+	/** Stepping table (built lazily) */
+	private volatile SteppingTable steppingTable;
+	
+	/**
+	 * Constructs with the configured Enigma machine.
+	 * 
+	 * @param machine Enigma machine
+	 */
+	CompiledEnigma(EnigmaMachine machine) {
+		this(machine, false);
+	}
+	
+	/**
+	 * Constructs with the configured Enigma machine.
+	 * 
+	 * @param machine Enigma machine
+	 * @param hidden whether the engine is defined as a hidden class
+	 */
+	CompiledEnigma(EnigmaMachine machine, boolean hidden) {
+		if (machine.entryWheel() == null) {
+			throw new IllegalStateException("Entry wheel is not set.");
+		}
+		
+		EngineEvent event = EnigmaEvents.isRecorderInitialized() ? new EngineEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
+		this.spec = machine.spec();
+		this.alphabet = this.spec.alphabet();
+		this.size = this.alphabet.size();
+		this.turnoverMechanism = this.spec.turnoverMechanism();
+		
+		// Plugboard and entry wheel
+		Plugboard plugboard = machine.plugboard();
+		this.entryForward = new int[this.size];
+		this.entryBackward = new int[this.size];
+		for (int number = 1; number <= this.size; number++) {
+			int fw = (plugboard == null) ? number : plugboard.scrambleForward(number);
+			fw = machine.entryWheel().scrambleForward(fw);
+			this.entryForward[number - 1] = fw - 1;
+			
+			int bw = machine.entryWheel().scrambleBackward(number);
+			bw = (plugboard == null) ? bw : plugboard.scrambleBackward(bw);
+			this.entryBackward[number - 1] = bw - 1;
+		}
+		
+		// Rotors and reflector
+		List<Scrambler> wheelList = new ArrayList<>();
+		List<Integer> slotNoList = new ArrayList<>();
+		List<Integer> positionList = new ArrayList<>();
+		for (int slotNo = 1; slotNo <= this.spec.rotorSlotCount(); slotNo++) {
+			Rotor rotor = machine.rotor(slotNo);
+			if (rotor != null) {
+				wheelList.add(rotor);
+				slotNoList.add(slotNo);
+				positionList.add(machine.rotorPosition(slotNo));
+			}
+		}
+		Reflector reflector = machine.reflector();
+		if (reflector != null) {
+			wheelList.add(reflector);
+			slotNoList.add(0);
+			positionList.add(machine.reflectorPosition());
+		}
+		if (wheelList.isEmpty()) {
+			throw new IllegalStateException("Neither rotors nor reflector are set.");
+		}
+		
+		int count = wheelList.size();
+		this.wheels = wheelList.toArray(new Scrambler[count]);
+		this.wheelForward = new int[count][];
+		this.wheelBackward = new int[count][];
+		this.turnable = new boolean[count];
+		this.turnover = new boolean[count][];
+		this.engageable = new boolean[count];
+		this.slotNos = new int[count];
+		this.positions = new int[count];
+		for (int i = 0; i < count; i++) {
+			Scrambler wheel = this.wheels[i];
+			if (wheel.size() != this.size) {
+				throw new IllegalStateException("Wheel size does not match the letters. wheel: " + wheel.name());
+			}
+			
+			this.wheelForward[i] = new int[this.size * this.size];
+			this.wheelBackward[i] = new int[this.size * this.size];
+			this.turnover[i] = new boolean[this.size];
+			for (int position = 1; position <= this.size; position++) {
+				int offset = position - 1;
+				int base = offset * this.size;
+				for (int number = 1; number <= this.size; number++) {
+					int fw = normalizeOneToBase(number, offset, this.size);
+					fw = wheel.scrambleForward(fw);
+					fw = normalizeOneToBase(fw, -offset, this.size);
+					this.wheelForward[i][base + number - 1] = fw - 1;
+					
+					int bw = normalizeOneToBase(number, offset, this.size);
+					bw = wheel.scrambleBackward(bw);
+					bw = normalizeOneToBase(bw, -offset, this.size);
+					this.wheelBackward[i][base + number - 1] = bw - 1;
+				}
+				this.turnover[i][offset] = wheel.isTurnable() && wheel.isTurnoverPosition(position);
+			}
+			
+			this.turnable[i] = wheel.isTurnable();
+			this.slotNos[i] = slotNoList.get(i);
+			this.positions[i] = positionList.get(i) - 1;
+		}
+		for (int i = 0; i < count; i++) {
+			// UKW or Middle/Right rotor
+			this.engageable[i] = (i == count - 1) || this.turnable[i + 1];
+		}
+		
+		// The hidden class engine, or the engine generated for the alphabet size if the wheel layout matches
+		this.engine = hidden ? Engine.hidden(this) : Engine.specialize(this);
+		
+		if (event != null && event.shouldCommit()) {
+			event.model = this.spec.name();
+			event.engine = this.engine.getClass().getSimpleName();
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Returns whether the machine can be compiled.
+	 * 
+	 * @param machine Enigma machine
+	 * @return true if the entry wheel and at least one of the rotors and the reflector are set, and their sizes match the letters
+	 */
+	static boolean canCompile(EnigmaMachine machine) {
+		int size = machine.spec().alphabet().size();
+		if (machine.entryWheel() == null || machine.entryWheel().size() != size) {
+			return false;
+		}
+		
+		boolean wheel = false;
+		for (int slotNo = 1; slotNo <= machine.spec().rotorSlotCount(); slotNo++) {
+			Rotor rotor = machine.rotor(slotNo);
+			if (rotor != null) {
+				if (rotor.size() != size) {
+					return false;
+				}
+				wheel = true;
+			}
+		}
+		Reflector reflector = machine.reflector();
+		if (reflector != null) {
+			if (reflector.size() != size) {
+				return false;
+			}
+			wheel = true;
+		}
+		
+		return wheel;
+	}
+	
+	/**
+	 * Returns the machine name.
+	 * 
+	 * @return machine name
+	 */
+	public String name() {
+		return this.spec.name();
+	}
+	
+	/**
+	 * Returns the Enigma machine specification.
+	 * 
+	 * @return Enigma machine specification
+	 */
+	public EnigmaMachineSpec spec() {
+		return this.spec;
+	}
+	
+	/**
+	 * Returns the count of letters.
+	 * 
+	 * @return count of letters
+	 */
+	int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the count of wheels.
+	 * 
+	 * @return count of wheels
+	 */
+	int wheelCount() {
+		return this.wheels.length;
+	}
+	
+	/**
+	 * Returns the wheel.
+	 * 
+	 * @param index wheel index
+	 * @return wheel
+	 */
+	Scrambler wheel(int index) {
+		return this.wheels[index];
+	}
+	
+	/**
+	 * Returns whether the wheel is turnable.
+	 * 
+	 * @param index wheel index
+	 * @return true if the wheel is turnable
+	 */
+	boolean isTurnable(int index) {
+		return this.turnable[index];
+	}
+	
+	/**
+	 * Returns the turnover mechanism.
+	 * 
+	 * @return turnover mechanism
+	 */
+	TurnoverMechanism turnoverMechanism() {
+		return this.turnoverMechanism;
+	}
+	
+	/**
+	 * Returns whether the wheel turnover engages the next wheel.
+	 * 
+	 * @param index wheel index
+	 * @return true if the wheel turnover engages the next wheel
+	 */
+	boolean isEngageable(int index) {
+		return this.engageable[index];
+	}
+	
+	/**
+	 * Returns the entry forward table.
+	 * 
+	 * @return entry forward table
+	 */
+	int[] entryForward() {
+		return this.entryForward;
+	}
+	
+	/**
+	 * Returns the entry backward table.
+	 * 
+	 * @return entry backward table
+	 */
+	int[] entryBackward() {
+		return this.entryBackward;
+	}
+	
+	/**
+	 * Returns the wheel forward table.
+	 * 
+	 * @param index wheel index
+	 * @return wheel forward table [position * size + number]
+	 */
+	int[] wheelForward(int index) {
+		return this.wheelForward[index];
+	}
+	
+	/**
+	 * Returns the wheel backward table.
+	 * 
+	 * @param index wheel index
+	 * @return wheel backward table [position * size + number]
+	 */
+	int[] wheelBackward(int index) {
+		return this.wheelBackward[index];
+	}
+	
+	/**
+	 * Returns the wheel turnover positions.
+	 * 
+	 * @param index wheel index
+	 * @return wheel turnover positions [position]
+	 */
+	boolean[] turnover(int index) {
+		return this.turnover[index];
+	}
+	
+	/**
+	 * Returns the engine.
+	 * 
+	 * @return engine
+	 */
+	Engine engine() {
+		return this.engine;
+	}
+	
+	/**
+	 * Returns the slot number of the wheel.
+	 * 
+	 * @param index wheel index
+	 * @return slot number (0 for the reflector)
+	 */
+	int slotNo(int index) {
+		return this.slotNos[index];
+	}
+	
+	/**
+	 * Returns the alphabet.
+	 * 
+	 * @return alphabet
+	 */
+	Alphabet alphabet() {
+		return this.alphabet;
+	}
+	
+	/**
+	 * Returns a copy of the starting positions.
+	 * 
+	 * @return starting positions (0-based)
+	 */
+	int[] positions() {
+		return this.positions.clone();
+	}
+	
+	/**
+	 * Returns the stepping table, building it on the first call.
+	 * 
+	 * @return stepping table
+	 */
+	SteppingTable steppingTable() {
+		SteppingTable steppingTable = this.steppingTable;
+		if (steppingTable == null) {
+			synchronized (this) {
+				steppingTable = this.steppingTable;
+				if (steppingTable == null) {
+					steppingTable = SteppingTable.of(this);
+					this.steppingTable = steppingTable;
+				}
+			}
+		}
+		return steppingTable;
+	}
+	
+	/**
+	 * Translates the text value.
+	 * 
+	 * @param value text value
+	 * @return translated value
+	 * @see #translate(String, UnsupportedLetterHandling)
+	 */
+	public String translate(String value) {
+		return translate(value, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the text value.
+	 * 
+	 * If it is a plain value, the encrypted value will be returned.
+	 * If it is an encrypted value, the decrypted value will be returned.
+	 * 
+	 * The case of letters is preserved.
+	 * 
+	 * The wheels are turned by the engine from the starting positions, without a session and the stepping table,
+	 * so a machine compiled for one message does not pay for the stepping table.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated value
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public String translate(String value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		Alphabet alphabet = this.alphabet;
+		Engine engine = this.engine;
+		int[] positions = this.positions.clone();
+		int len = value.length();
+		
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			char letter = value.charAt(i);
+			
+			// Letter number and case
+			int code = alphabet.encode(letter);
+			if (code == -1) {
+				switch (unsupportedLetterHandling) {
+				case EXCEPTION: throw new UnsupportedLetterException(letter);
+				case REMOVAL: continue;
+				default /* Path through */: sb.append(letter); continue;
+				}
+			}
+			
+			engine.turn(positions);
+			int number = engine.scramble(positions, Alphabet.number(code));
+			
+			// Preserve the case of the original letter
+			sb.append(alphabet.decode(number, code));
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Creates a new session which starts from the starting positions of this machine.
+	 * 
+	 * @return new session
+	 */
+	public EnigmaSession session() {
+		return new EnigmaSession(this);
+	}
+	
+	/**
+	 * Turns the wheels by one key press.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 */
+	void turn(int[] positions) {
+		this.engine.turn(positions);
+	}
+	
+	/**
+	 * Scrambles the number.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 * @param number number (0-based)
+	 * @return scrambled number (0-based)
+	 */
+	int scramble(int[] positions, int number) {
+		return this.engine.scramble(positions, number);
+	}
+	
+	private static int normalizeOneToBase(int n, int offset, int base) {
+		n = (n + offset) % base;
+		
+		if (n <= 0) {
+			n += base;
+		}
+		
+		return n;
+	}
+}
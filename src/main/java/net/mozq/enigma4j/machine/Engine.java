@@ -0,0 +1,82 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Translation engine of a compiled machine.
+ * 
+ * An engine turns the wheels and scrambles a number with the tables of the compiled machine.
+ * The generic engine loops over the wheels. The specialized engines are straight-line code
+ * for the exact wheel layout and turnover mechanism.
+ * The engines of the common wheel layouts for each alphabet size (10, 26 and 28 letters, with the constant size)
+ * are generated at the build time (see {@link GeneratedEngines}).
+ * The other machines use the generic engine.
+ * On Java 17 or later, the engine of a compiled machine can be defined as a hidden class
+ * whose tables and wheel layout are constants (see {@link HiddenEngines}).
+ */
+abstract class Engine {
+	
+	/**
+	 * Returns the generic engine of the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @return generic engine
+	 */
+	static Engine generic(CompiledEnigma compiled) {
+		return new GenericEngine(compiled);
+	}
+	
+	/**
+	 * Returns the engine specialized for the wheel layout of the compiled machine.
+	 * If there is no specialized engine, the generic engine is returned.
+	 * 
+	 * @param compiled compiled machine
+	 * @return specialized engine
+	 */
+	static Engine specialize(CompiledEnigma compiled) {
+		Engine generated = GeneratedEngines.of(compiled);
+		return (generated != null) ? generated : generic(compiled);
+	}
+	
+	/**
+	 * Returns the engine defined as a hidden class for the compiled machine.
+	 * If the hidden classes are not supported, the specialized engine is returned.
+	 * 
+	 * @param compiled compiled machine
+	 * @return hidden class engine
+	 */
+	static Engine hidden(CompiledEnigma compiled) {
+		Engine hidden = HiddenEngines.of(compiled);
+		return (hidden != null) ? hidden : specialize(compiled);
+	}
+	
+	/**
+	 * Turns the wheels by one key press.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 */
+	abstract void turn(int[] positions);
+	
+	/**
+	 * Scrambles the number.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 * @param number number (0-based)
+	 * @return scrambled number (0-based)
+	 */
+	abstract int scramble(int[] positions, int number);
+}
@@ -16,12 +16,25 @@
  */
 package net.mozq.enigma4j.machine;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
+import net.mozq.enigma4j.jfr.EngineEvent;
+import net.mozq.enigma4j.jfr.EnigmaEvents;
+import net.mozq.enigma4j.jfr.PlugboardEvent;
+import net.mozq.enigma4j.jfr.TranslateEvent;
+import net.mozq.enigma4j.metrics.EnigmaMetrics;
 import net.mozq.enigma4j.scrambler.EntryWheel;
 import net.mozq.enigma4j.scrambler.Plugboard;
 import net.mozq.enigma4j.scrambler.Reflector;
@@ -36,7 +49,7 @@ import net.mozq.enigma4j.scrambler.WiringPair;
 public class EnigmaMachine {
 	
 	/** Default scramble tracker */
-	private static ScrambleTracker defaultTracker = null;
+	private static volatile ScrambleTracker defaultTracker = null;
 	
 	/** Enigma machine specification */
 	private EnigmaMachineSpec spec;
@@ -62,6 +75,12 @@ public class EnigmaMachine {
 	/** Scramble tracker */
 	private ScrambleTracker tracker;
 	
+	/** Compiled machine of the current settings for the untraced translation (null if not compiled yet) */
+	private CompiledEnigma compiled;
+	
+	/** Count of the letters translated untraced by the scrambler chain since the settings were changed */
+	private long untracedLetters;
+	
 	/**
 	 * Constracts with the Enigma machine specification.
 	 * 
@@ -221,7 +240,21 @@ public class EnigmaMachine {
 	 * @return this instance
 	 */
 	public EnigmaMachine plugboard(List<WiringPair> wiringPairs) {
+		PlugboardEvent event = EnigmaEvents.isRecorderInitialized() ? new PlugboardEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
 		this.plugboard = new Plugboard("Plugboard", this.spec().letters(), wiringPairs);
+		
+		if (event != null && event.shouldCommit()) {
+			event.model = this.spec.name();
+			event.pairs = wiringPairs.size();
+			event.uhrSetting = -1;
+			event.commit();
+		}
+		this.compiled = null;
+		this.untracedLetters = 0;
 		return this;
 	}
 	
@@ -255,7 +288,21 @@ public class EnigmaMachine {
 	 * @return this instance
 	 */
 	public EnigmaMachine plugboard(List<WiringPair> wiringPairs, int uhrSetting) {
+		PlugboardEvent event = EnigmaEvents.isRecorderInitialized() ? new PlugboardEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
 		this.plugboard = new Plugboard("Plugboard", this.spec().letters(), wiringPairs, uhrSetting);
+		
+		if (event != null && event.shouldCommit()) {
+			event.model = this.spec.name();
+			event.pairs = wiringPairs.size();
+			event.uhrSetting = uhrSetting;
+			event.commit();
+		}
+		this.compiled = null;
+		this.untracedLetters = 0;
 		return this;
 	}
 	
@@ -267,6 +314,8 @@ public class EnigmaMachine {
 	 */
 	public EnigmaMachine entryWheel(EntryWheel entryWheel) {
 		this.entryWheel = entryWheel;
+		this.compiled = null;
+		this.untracedLetters = 0;
 		return this;
 	}
 	
@@ -327,6 +376,8 @@ public class EnigmaMachine {
 		
 		this.rotors[slotNo - 1] = rotor;
 		this.rotorPositions[slotNo - 1] = position;
+		this.compiled = null;
+		this.untracedLetters = 0;
 		return this;
 	}
 	
@@ -461,6 +512,8 @@ public class EnigmaMachine {
 		
 		this.reflector = reflector;
 		this.reflectorPosition = position;
+		this.compiled = null;
+		this.untracedLetters = 0;
 		return this;
 	}
 	
@@ -575,6 +628,86 @@ public class EnigmaMachine {
 		return this;
 	}
 	
+	/**
+	 * Compiles this machine into flat wiring tables.
+	 * 
+	 * The compiled machine is an immutable snapshot of the current settings.
+	 * Changes to this machine after compiling are not reflected.
+	 * 
+	 * @return compiled machine
+	 */
+	public CompiledEnigma compile() {
+		return new CompiledEnigma(this);
+	}
+	
+	/**
+	 * Compiles this machine into flat wiring tables, with the engine defined as a hidden class.
+	 * 
+	 * On Java 17 or later, the engine is a hidden class whose tables and wheel layout are constants,
+	 * so the JIT compiler specializes it for these settings. Defining the class costs much more than {@link #compile()},
+	 * so this is for the long-lived keys which translate many letters.
+	 * On Java 11, this is the same as {@link #compile()}.
+	 * 
+	 * @return compiled machine
+	 */
+	public CompiledEnigma compileHidden() {
+		return new CompiledEnigma(this, true);
+	}
+	
+	/**
+	 * Creates a new session which starts from the current settings of this machine.
+	 * 
+	 * The session keeps the positions between the translations.
+	 * Changes to this machine after creating are not reflected.
+	 * 
+	 * @return new session
+	 * @see EnigmaSession
+	 */
+	public EnigmaSession session() {
+		return compiled().session();
+	}
+	
+	/**
+	 * Returns the compiled machine of the current settings.
+	 * 
+	 * The compiled machine is kept until the settings are changed.
+	 * 
+	 * @return compiled machine
+	 */
+	private CompiledEnigma compiled() {
+		CompiledEnigma compiled = this.compiled;
+		if (compiled == null) {
+			compiled = compile();
+			this.compiled = compiled;
+		}
+		return compiled;
+	}
+	
+	/**
+	 * Set the rotor and reflector positions to the state after the count of key presses.
+	 * 
+	 * The state is found from the precomputed stepping cycles, without pressing keys.
+	 * 
+	 * @param count count of the key presses
+	 * @return this instance
+	 */
+	public EnigmaMachine skip(long count) {
+		EnigmaSession session = session();
+		session.skip(count);
+		
+		for (int slotNo = 1; slotNo <= this.rotors.length; slotNo++) {
+			if (this.rotors[slotNo - 1] != null) {
+				this.rotorPositions[slotNo - 1] = session.rotorPosition(slotNo);
+			}
+		}
+		if (this.reflector != null) {
+			this.reflectorPosition = session.reflectorPosition();
+		}
+		this.compiled = null;
+		this.untracedLetters = 0;
+		return this;
+	}
+	
 	/**
 	 * Translates the text value.
 	 * 
@@ -594,12 +727,120 @@ public class EnigmaMachine {
 	 * 
 	 * The case of letters is preserved.
 	 * 
+	 * If the scramble tracker is not set, the value is translated by the compiled machine of the current settings,
+	 * which has no tracker checks at all. The compiled machine is kept until the settings are changed.
+	 * Compiling costs about as much as translating (count of letters)^2 letters by the scrambler chain,
+	 * so the machine is compiled once the values translated since the settings were changed reach that count,
+	 * and the values before are translated by the scrambler chain.
+	 * If the scramble tracker is set, the value is translated by the scrambler chain which calls the tracker.
+	 * 
 	 * @param value text value
 	 * @param unsupportedLetterHandling unsupported letter handling
 	 * @return translated value
 	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
 	 */
 	public String translate(String value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		TranslateEvent event = EnigmaEvents.isRecorderInitialized() ? new TranslateEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		EnigmaMetrics metrics = EnigmaMetrics.global();
+		boolean measured = metrics.isEnabled();
+		long start = measured ? System.nanoTime() : 0;
+		
+		String translated;
+		boolean traced = (this.tracker != null);
+		try {
+			CompiledEnigma compiled = traced ? null : this.compiled;
+			if (!traced && compiled == null && compileThreshold() <= this.untracedLetters + value.length() && CompiledEnigma.canCompile(this)) {
+				// Untraced, translated enough letters to pay back the compilation
+				compiled = compiled();
+			}
+			if (compiled != null) {
+				translated = compiled.translate(value, unsupportedLetterHandling);
+			} else {
+				translated = translateTraced(value, unsupportedLetterHandling);
+				if (!traced) {
+					this.untracedLetters += value.length();
+				}
+			}
+		} catch (UnsupportedLetterException e) {
+			if (measured) {
+				metrics.record(this.spec.name(), 0, 1, unsupportedLetterHandling, System.nanoTime() - start);
+			}
+			throw e;
+		}
+		
+		if (measured || event != null && event.shouldCommit()) {
+			long latency = measured ? System.nanoTime() - start : 0;
+			int unsupported = unsupportedCount(value, translated, unsupportedLetterHandling);
+			if (measured) {
+				metrics.record(this.spec.name(), value.length() - unsupported, unsupported, unsupportedLetterHandling, latency);
+			}
+			if (event != null && event.shouldCommit()) {
+				event.model = this.spec.name();
+				event.traced = traced;
+				event.lettersIn = value.length();
+				event.lettersOut = translated.length();
+				event.unsupportedLetters = unsupported;
+				event.commit();
+			}
+		}
+		return translated;
+	}
+	
+	/**
+	 * Returns the count of the translated letters from which the untraced translation compiles the machine.
+	 * 
+	 * Compiling builds the tables of all the positions of all the wheels,
+	 * which costs about as much as translating (count of letters)^2 letters by the scrambler chain.
+	 * 
+	 * @return count of the letters
+	 */
+	private int compileThreshold() {
+		int size = this.spec.alphabet().size();
+		return size * size;
+	}
+	
+	/**
+	 * Returns the count of the unsupported letters.
+	 * 
+	 * @param value text value
+	 * @param translated translated value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return count of the unsupported letters
+	 */
+	private int unsupportedCount(String value, String translated, UnsupportedLetterHandling unsupportedLetterHandling) {
+		switch (unsupportedLetterHandling) {
+		case REMOVAL: return value.length() - translated.length();
+		case EXCEPTION: return 0;
+		default /* Path through */: break;
+		}
+		
+		Alphabet alphabet = this.spec.alphabet();
+		int count = 0;
+		for (int i = 0; i < value.length(); i++) {
+			if (alphabet.encode(value.charAt(i)) == -1) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Translates the text value by the scrambler chain, and calls the scramble tracker if it is set.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated value
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	private String translateTraced(String value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		EngineEvent event = EnigmaEvents.isRecorderInitialized() ? new EngineEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
 		ScramblerChain chain = null;
 		if (this.reflector != null) {
 			chain = new ScramblerChain(this, this.reflector, this.reflectorPosition, chain);
@@ -617,15 +858,22 @@ public class EnigmaMachine {
 			chain.setTrackerAll(this.tracker);
 		}
 		
+		if (event != null && event.shouldCommit()) {
+			event.model = this.spec.name();
+			event.engine = ScramblerChain.class.getSimpleName();
+			event.commit();
+		}
+		
+		Alphabet alphabet = this.spec.alphabet();
 		int len = value.length();
 		
 		StringBuilder sb = new StringBuilder(len);
 		for (int i = 0; i < len; i++) {
 			char letter = value.charAt(i);
-			char upperLetter = Character.toUpperCase(letter);
 			
-			int number = letterNumberOf(upperLetter, -1);
-			if (number == -1) {
+			// Letter number and case
+			int code = alphabet.encode(letter);
+			if (code == -1) {
 				switch (unsupportedLetterHandling) {
 				case EXCEPTION: throw new UnsupportedLetterException(letter);
 				case REMOVAL: continue;
@@ -634,23 +882,131 @@ public class EnigmaMachine {
 			}
 			
 			chain.turn(this.spec.turnoverMechanism());
-			number = chain.scramble(number);
+			int number = chain.scramble(Alphabet.number(code) + 1);
 			
-			char scrambledLetter = letterOf(number);
-			
-			if (letter != upperLetter) {
-				// Original letter is a lower case
-				
-				// To lower case
-				scrambledLetter = Character.toLowerCase(scrambledLetter);
-			}
-			
-			sb.append(scrambledLetter);
+			// Preserve the case of the original letter
+			sb.append(alphabet.decode(number - 1, code));
 		}
 		
 		return sb.toString();
 	}
 	
+	/**
+	 * Translates the bytes from the source buffer to the destination buffer.
+	 * 
+	 * @param src source buffer
+	 * @param dst destination buffer
+	 * @return counts of the consumed and produced bytes
+	 * @see #translate(ByteBuffer, ByteBuffer, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(ByteBuffer src, ByteBuffer dst) {
+		return translate(src, dst, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the bytes from the source buffer to the destination buffer.
+	 * 
+	 * The bytes are translated as ISO-8859-1 (a superset of US-ASCII) letters, without the intermediate strings.
+	 * The positions of both buffers are advanced by the consumed and produced bytes.
+	 * If an unsupported letter is found with EXCEPTION, the letters before it are already written,
+	 * and the positions of both buffers are left as {@link EnigmaSession#translate(ByteBuffer, ByteBuffer, UnsupportedLetterHandling)} describes.
+	 * The rotor positions of this machine are not changed.
+	 * The scramble tracker is not called.
+	 * Use {@link #session()} to continue the positions across the buffers.
+	 * 
+	 * @param src source buffer
+	 * @param dst destination buffer
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return counts of the consumed and produced bytes
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 * @see EnigmaSession#translate(ByteBuffer, ByteBuffer, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(ByteBuffer src, ByteBuffer dst, UnsupportedLetterHandling unsupportedLetterHandling) {
+		return session().translate(src, dst, unsupportedLetterHandling);
+	}
+	
+	/**
+	 * Translates the bytes in place.
+	 * 
+	 * @param buf buffer
+	 * @param off offset
+	 * @param len length
+	 * @return counts of the consumed and produced bytes
+	 * @see #translate(byte[], int, int, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(byte[] buf, int off, int len) {
+		return translate(buf, off, len, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the bytes in place.
+	 * 
+	 * The bytes are translated as ISO-8859-1 (a superset of US-ASCII) letters, without the intermediate strings.
+	 * If the unsupported letters are removed, the translated bytes are packed to the front.
+	 * The scramble tracker is not called.
+	 * 
+	 * @param buf buffer
+	 * @param off offset
+	 * @param len length
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return counts of the consumed and produced bytes
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and buf contains unsupported letters.
+	 * @see EnigmaSession#translate(byte[], int, int, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(byte[] buf, int off, int len, UnsupportedLetterHandling unsupportedLetterHandling) {
+		return session().translate(buf, off, len, unsupportedLetterHandling);
+	}
+	
+	/**
+	 * Translates the text value in parallel.
+	 * 
+	 * @param value text value
+	 * @param pool fork join pool
+	 * @return translated value
+	 * @see #translateParallel(CharSequence, UnsupportedLetterHandling, ForkJoinPool)
+	 */
+	public String translateParallel(CharSequence value, ForkJoinPool pool) {
+		return translateParallel(value, UnsupportedLetterHandling.PATH_THROUGH, pool);
+	}
+	
+	/**
+	 * Translates the text value in parallel.
+	 * 
+	 * The text value is split into chunks, and each chunk is translated on its own thread from its start positions.
+	 * The translated value is the same as {@link #translate(String, UnsupportedLetterHandling)},
+	 * but the scramble tracker is not called.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @param pool fork join pool
+	 * @return translated value
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public String translateParallel(CharSequence value, UnsupportedLetterHandling unsupportedLetterHandling, ForkJoinPool pool) {
+		return new ParallelTranslator(compiled(), unsupportedLetterHandling, pool).translate(value);
+	}
+	
+	/**
+	 * Translates the text file in parallel.
+	 * 
+	 * The file is read in blocks, and each block is split into chunks which are translated in parallel,
+	 * so the whole file is not held in memory.
+	 * 
+	 * @param source source file
+	 * @param target target file
+	 * @param charset charset of the files
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @param pool fork join pool
+	 * @throws IOException thrown when an I/O error occurs
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public void translateParallel(Path source, Path target, Charset charset, UnsupportedLetterHandling unsupportedLetterHandling, ForkJoinPool pool) throws IOException {
+		try (Reader in = Files.newBufferedReader(source, charset);
+				Writer out = Files.newBufferedWriter(target, charset)) {
+			new ParallelTranslator(compiled(), unsupportedLetterHandling, pool).translate(in, out);
+		}
+	}
+	
 	/**
 	 * Returns the letter number of the letter.
 	 * 
@@ -676,7 +1032,7 @@ public class EnigmaMachine {
 	 * @return letter number
 	 */
 	public int letterNumberOf(char letter, int defaultValue) {
-		int idx = this.spec().letters().indexOf(letter);
+		int idx = this.spec().alphabet().numberOf(letter);
 		if (idx == -1) {
 			return defaultValue;
 		}
@@ -696,7 +1052,7 @@ public class EnigmaMachine {
 			throw new IllegalArgumentException("Letter number is out of range. letterNumber: " + letterNumber);
 		}
 		
-		return this.spec().letters().charAt(letterNumber - 1);
+		return this.spec().alphabet().letterOf(letterNumber - 1);
 	}
 	
 	@Override
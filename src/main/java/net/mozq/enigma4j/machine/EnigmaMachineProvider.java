@@ -0,0 +1,48 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.List;
+
+/**
+ * Enigma machine provider.
+ * 
+ * The providers are discovered by {@link java.util.ServiceLoader}, so the machines out of this library
+ * are available by name from {@code Enigma.machine(String)}.
+ * Register the implementation in {@code META-INF/services/net.mozq.enigma4j.machine.EnigmaMachineProvider}.
+ * 
+ * The built-in machines take precedence over the provided machines of the same name.
+ */
+public interface EnigmaMachineProvider {
+	
+	/**
+	 * List the provided machine names.
+	 * 
+	 * @return machine name list
+	 */
+	List<String> machineNames();
+	
+	/**
+	 * Returns the machine specification.
+	 * 
+	 * The specification is cached by name, so it can be built on demand.
+	 * 
+	 * @param machineName machine name
+	 * @return machine specification, null if not provided
+	 */
+	EnigmaMachineSpec machineSpec(String machineName);
+}
@@ -40,6 +40,9 @@ public class EnigmaMachineSpec {
 	/** Letters */
 	private String letters;
 	
+	/** Alphabet */
+	private Alphabet alphabet;
+	
 	/** Defined entry wheel */
 	private EntryWheel definedEntryWheel;
 	
@@ -93,6 +96,7 @@ public class EnigmaMachineSpec {
 	public EnigmaMachineSpec(String name, String letters, EntryWheel definedEntryWheel, List<Rotor> definedRotors, List<Rotor> definedFourthRotors, List<Reflector> definedReflectors, TurnoverMechanism turnoverMechanism, EnigmaFeature... features) {
 		this.name = name;
 		this.letters = letters;
+		this.alphabet = Alphabet.of(letters);
 		this.definedEntryWheel = definedEntryWheel;
 		this.definedRotors = List.copyOf(definedRotors);
 		this.definedFourthRotors = (definedFourthRotors == null) ? List.of() : List.copyOf(definedFourthRotors);
@@ -127,6 +131,15 @@ public class EnigmaMachineSpec {
 		return this.letters;
 	}
 	
+	/**
+	 * Returns the alphabet.
+	 * 
+	 * @return alphabet
+	 */
+	public Alphabet alphabet() {
+		return this.alphabet;
+	}
+	
 	/**
 	 * Returns the rotor slot count.
 	 * 
@@ -0,0 +1,557 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Enigma session.
+ * 
+ * A session keeps the wheel positions between the translations,
+ * so a long message can be translated piece by piece.
+ * 
+ * <pre>
+ * EnigmaSession session = enigmaMachine.session();
+ * String encrypted1 = session.translate("SECRET");
+ * String encrypted2 = session.translate("MESSAGE"); // Continues from the positions after "SECRET"
+ * </pre>
+ * 
+ * The wheels are turned by the engine of the compiled machine key press by key press.
+ * The stepping table is built only when the positions are moved without pressing keys
+ * ({@link #seek(long)}, {@link #skip(long)} and {@link #rewind(long)}), so a short-lived session stays cheap.
+ * 
+ * The scramble tracker is not called in a session.
+ * 
+ * The bytes are translated as ISO-8859-1 (a superset of US-ASCII) letters, without the intermediate strings.
+ * 
+ * This class is not thread-safe.
+ */
+public final class EnigmaSession {
+	
+	/** Buffer size of the stream translation */
+	private static final int BUFFER_SIZE = 8192;
+	
+	/** Removed letter */
+	private static final int REMOVED = -1;
+	
+	/** Compiled machine */
+	private final CompiledEnigma compiled;
+	
+	/** Alphabet */
+	private final Alphabet alphabet;
+	
+	/** Starting positions (0-based) */
+	private final int[] startPositions;
+	
+	/** Current positions (0-based) */
+	private final int[] positions;
+	
+	/** Count of the key presses */
+	private long count;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 */
+	EnigmaSession(CompiledEnigma compiled) {
+		this.compiled = compiled;
+		this.alphabet = compiled.alphabet();
+		this.startPositions = compiled.positions();
+		this.positions = compiled.positions();
+		this.count = 0;
+	}
+	
+	/**
+	 * Returns the machine name.
+	 * 
+	 * @return machine name
+	 */
+	public String name() {
+		return this.compiled.name();
+	}
+	
+	/**
+	 * Returns the count of the key presses since the session started.
+	 * Unsupported letters are not counted.
+	 * 
+	 * @return count of the key presses
+	 */
+	public long count() {
+		return this.count;
+	}
+	
+	/**
+	 * Returns the current stepping state.
+	 * 
+	 * The positions of the turnable wheels (and the turnable reflector) are encoded into one integer.
+	 * The states of the sessions of the same wheel order are comparable,
+	 * so the state is a cheap key of the wheel positions (e.g. for the caches and the searches).
+	 * 
+	 * @return stepping state
+	 */
+	public int state() {
+		return SteppingTable.encode(this.compiled, this.positions);
+	}
+	
+	/**
+	 * Returns the current rotor positions.
+	 * 
+	 * @return rotor positions (0 for the empty slots)
+	 */
+	public List<Integer> rotorPositions() {
+		int len = this.compiled.spec().rotorSlotCount();
+		List<Integer> list = new ArrayList<>(len);
+		for (int slotNo = 1; slotNo <= len; slotNo++) {
+			list.add(Integer.valueOf(rotorPosition(slotNo)));
+		}
+		return Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Returns the current rotor position.
+	 * 
+	 * @param slotNo slot no
+	 * @return rotor position (0 for the empty slot)
+	 */
+	public int rotorPosition(int slotNo) {
+		if (slotNo <= 0 || this.compiled.spec().rotorSlotCount() < slotNo) {
+			throw new IllegalArgumentException();
+		}
+		
+		for (int i = 0; i < this.positions.length; i++) {
+			if (this.compiled.slotNo(i) == slotNo) {
+				return this.positions[i] + 1;
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Returns the current reflector position.
+	 * 
+	 * @return reflector position
+	 */
+	public int reflectorPosition() {
+		for (int i = 0; i < this.positions.length; i++) {
+			if (this.compiled.slotNo(i) == 0) {
+				return this.positions[i] + 1;
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Resets the positions to the starting positions of the machine.
+	 */
+	public void reset() {
+		System.arraycopy(this.startPositions, 0, this.positions, 0, this.positions.length);
+		this.count = 0;
+	}
+	
+	/**
+	 * Moves the positions to the state after the count of key presses since the session started.
+	 * 
+	 * The state is found from the precomputed stepping cycles, without pressing keys.
+	 * 
+	 * @param offset count of the key presses since the session started
+	 */
+	public void seek(long offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset is out of range. offset: " + offset);
+		}
+		
+		reset();
+		skip(offset);
+	}
+	
+	/**
+	 * Moves the positions to the state after the count of key presses from the current state.
+	 * 
+	 * The state is found from the precomputed stepping cycles, without pressing keys.
+	 * 
+	 * @param count count of the key presses
+	 */
+	public void skip(long count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count is out of range. count: " + count);
+		}
+		if (count == 0) {
+			return;
+		}
+		
+		SteppingTable steppingTable = this.compiled.steppingTable();
+		int state = steppingTable.skip(steppingTable.encode(this.positions), count);
+		steppingTable.decode(state, this.positions);
+		this.count += count;
+	}
+	
+	/**
+	 * Moves the positions back to the state before the count of key presses from the current state.
+	 * 
+	 * The state is found from the precomputed stepping cycles, without replaying the key presses from the start,
+	 * so a part of the message can be translated again from an earlier offset.
+	 * 
+	 * @param count count of the key presses to rewind (up to {@link #count()})
+	 */
+	public void rewind(long count) {
+		if (count < 0 || this.count < count) {
+			throw new IllegalArgumentException("Count is out of range. count: " + count);
+		}
+		
+		SteppingTable steppingTable = this.compiled.steppingTable();
+		int state = steppingTable.rewind(steppingTable.encode(this.startPositions), this.count, steppingTable.encode(this.positions), count);
+		steppingTable.decode(state, this.positions);
+		this.count -= count;
+	}
+	
+	/**
+	 * Translates the text value, and keeps the positions for the next translation.
+	 * 
+	 * @param value text value
+	 * @return translated value
+	 * @see #translate(CharSequence, UnsupportedLetterHandling)
+	 */
+	public String translate(CharSequence value) {
+		return translate(value, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the text value, and keeps the positions for the next translation.
+	 * 
+	 * If it is a plain value, the encrypted value will be returned.
+	 * If it is an encrypted value, the decrypted value will be returned.
+	 * 
+	 * The case of letters is preserved.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated value
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public String translate(CharSequence value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		int len = value.length();
+		
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			int translated = translate(value.charAt(i), unsupportedLetterHandling);
+			if (translated != REMOVED) {
+				sb.append((char)translated);
+			}
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Translates the range of the text value into the array, and keeps the positions for the next translation.
+	 * 
+	 * This method does not allocate any object, except the exception.
+	 * The array must have room for the whole range from the offset.
+	 * 
+	 * @param src text value
+	 * @param start start index (inclusive)
+	 * @param end end index (exclusive)
+	 * @param dst destination array
+	 * @param dstOff offset of the destination array
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return count of the translated letters written into the array
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 */
+	public int translate(CharSequence src, int start, int end, char[] dst, int dstOff, UnsupportedLetterHandling unsupportedLetterHandling) {
+		Objects.checkFromToIndex(start, end, src.length());
+		Objects.checkFromIndexSize(dstOff, end - start, dst.length);
+		
+		int dstPos = dstOff;
+		for (int i = start; i < end; i++) {
+			int translated = translate(src.charAt(i), unsupportedLetterHandling);
+			if (translated != REMOVED) {
+				dst[dstPos++] = (char)translated;
+			}
+		}
+		
+		return dstPos - dstOff;
+	}
+	
+	/**
+	 * Translates the range of the array into the array, and keeps the positions for the next translation.
+	 * 
+	 * This method does not allocate any object, except the exception.
+	 * The destination array must have room for the whole range from the offset.
+	 * The source and the destination may be the same array at the same offset (translation in place).
+	 * 
+	 * @param src source array
+	 * @param off offset of the source array
+	 * @param len length
+	 * @param dst destination array
+	 * @param dstOff offset of the destination array
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return count of the translated letters written into the array
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 */
+	public int translate(char[] src, int off, int len, char[] dst, int dstOff, UnsupportedLetterHandling unsupportedLetterHandling) {
+		Objects.checkFromIndexSize(off, len, src.length);
+		Objects.checkFromIndexSize(dstOff, len, dst.length);
+		
+		int dstPos = dstOff;
+		for (int i = off; i < off + len; i++) {
+			int translated = translate(src[i], unsupportedLetterHandling);
+			if (translated != REMOVED) {
+				dst[dstPos++] = (char)translated;
+			}
+		}
+		
+		return dstPos - dstOff;
+	}
+	
+	/**
+	 * Translates the text value into the appendable, and keeps the positions for the next translation.
+	 * 
+	 * This method does not allocate any object, except the exception and the allocation of the appendable itself
+	 * (e.g. a {@link StringBuilder} with enough capacity does not allocate).
+	 * 
+	 * @param src text value
+	 * @param dst appendable
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return count of the translated letters appended
+	 * @throws IOException thrown when the appendable throws
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 */
+	public int translate(CharSequence src, Appendable dst, UnsupportedLetterHandling unsupportedLetterHandling) throws IOException {
+		int len = src.length();
+		
+		int produced = 0;
+		for (int i = 0; i < len; i++) {
+			int translated = translate(src.charAt(i), unsupportedLetterHandling);
+			if (translated != REMOVED) {
+				dst.append((char)translated);
+				produced++;
+			}
+		}
+		
+		return produced;
+	}
+	
+	/**
+	 * Translates the range of the array into the appendable, and keeps the positions for the next translation.
+	 * 
+	 * This method does not allocate any object, except the exception and the allocation of the appendable itself
+	 * (e.g. a {@link StringBuilder} with enough capacity does not allocate).
+	 * 
+	 * @param src source array
+	 * @param off offset of the source array
+	 * @param len length
+	 * @param dst appendable
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return count of the translated letters appended
+	 * @throws IOException thrown when the appendable throws
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 */
+	public int translate(char[] src, int off, int len, Appendable dst, UnsupportedLetterHandling unsupportedLetterHandling) throws IOException {
+		Objects.checkFromIndexSize(off, len, src.length);
+		
+		int produced = 0;
+		for (int i = off; i < off + len; i++) {
+			int translated = translate(src[i], unsupportedLetterHandling);
+			if (translated != REMOVED) {
+				dst.append((char)translated);
+				produced++;
+			}
+		}
+		
+		return produced;
+	}
+	
+	/**
+	 * Translates the letter.
+	 * 
+	 * @param letter letter
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated letter, or {@link #REMOVED} if the letter is removed
+	 */
+	private int translate(char letter, UnsupportedLetterHandling unsupportedLetterHandling) {
+		// Letter number and case
+		int code = this.alphabet.encode(letter);
+		if (code == -1) {
+			switch (unsupportedLetterHandling) {
+			case EXCEPTION: throw new UnsupportedLetterException(letter);
+			case REMOVAL: return REMOVED;
+			default /* Path through */: return letter;
+			}
+		}
+		
+		this.compiled.turn(this.positions);
+		this.count++;
+		int number = this.compiled.scramble(this.positions, Alphabet.number(code));
+		
+		// Preserve the case of the original letter
+		return this.alphabet.decode(number, code);
+	}
+	
+	/**
+	 * Translates the bytes from the source buffer to the destination buffer, and keeps the positions for the next translation.
+	 * 
+	 * @param src source buffer
+	 * @param dst destination buffer
+	 * @return counts of the consumed and produced bytes
+	 * @see #translate(ByteBuffer, ByteBuffer, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(ByteBuffer src, ByteBuffer dst) {
+		return translate(src, dst, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the bytes from the source buffer to the destination buffer, and keeps the positions for the next translation.
+	 * 
+	 * The bytes are read from the position of the source buffer, and written from the position of the destination buffer.
+	 * The translation stops when the source buffer is exhausted or the destination buffer is full,
+	 * and the positions of both buffers are advanced by the consumed and produced bytes.
+	 * 
+	 * If an unsupported letter is found with EXCEPTION, the translation is not rolled back.
+	 * The letters before it are already written to the destination buffer,
+	 * the position of the source buffer is left at the unsupported letter,
+	 * the position of the destination buffer is left after the written letters,
+	 * and the rotor positions and {@link #count()} of this session include the key presses of the written letters.
+	 * So the caller can skip the unsupported letter and continue the translation.
+	 * 
+	 * @param src source buffer
+	 * @param dst destination buffer
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return counts of the consumed and produced bytes
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and src contains unsupported letters.
+	 * @throws IllegalStateException thrown when the letters of the machine are not in the ISO-8859-1 range.
+	 */
+	public TranslationResult translate(ByteBuffer src, ByteBuffer dst, UnsupportedLetterHandling unsupportedLetterHandling) {
+		Alphabet alphabet = this.alphabet;
+		if (!alphabet.isLatin1()) {
+			throw new IllegalStateException("Letters are not in the ISO-8859-1 range. letters: " + alphabet.letters());
+		}
+		int[] positions = this.positions;
+		
+		int srcStart = src.position();
+		int srcLimit = src.limit();
+		int dstStart = dst.position();
+		int dstLimit = dst.limit();
+		
+		int srcPos = srcStart;
+		int dstPos = dstStart;
+		try {
+			for (; srcPos < srcLimit; srcPos++) {
+				byte b = src.get(srcPos);
+				char letter = (char)(b & 0xFF);
+				
+				// Letter number and case
+				int code = alphabet.encode(letter);
+				if (code == -1) {
+					switch (unsupportedLetterHandling) {
+					case EXCEPTION: throw new UnsupportedLetterException(letter);
+					case REMOVAL: continue;
+					default /* Path through */:
+						if (dstPos == dstLimit) {
+							return new TranslationResult(srcPos - srcStart, dstPos - dstStart);
+						}
+						dst.put(dstPos++, b);
+						continue;
+					}
+				}
+				
+				if (dstPos == dstLimit) {
+					return new TranslationResult(srcPos - srcStart, dstPos - dstStart);
+				}
+				
+				this.compiled.turn(positions);
+				this.count++;
+				int number = this.compiled.scramble(positions, Alphabet.number(code));
+				
+				// Preserve the case of the original letter
+				dst.put(dstPos++, (byte)alphabet.decode(number, code));
+			}
+			
+			return new TranslationResult(srcPos - srcStart, dstPos - dstStart);
+		} finally {
+			src.position(srcPos);
+			dst.position(dstPos);
+		}
+	}
+	
+	/**
+	 * Translates the bytes in place, and keeps the positions for the next translation.
+	 * 
+	 * @param buf buffer
+	 * @param off offset
+	 * @param len length
+	 * @return counts of the consumed and produced bytes
+	 * @see #translate(byte[], int, int, UnsupportedLetterHandling)
+	 */
+	public TranslationResult translate(byte[] buf, int off, int len) {
+		return translate(buf, off, len, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the bytes in place, and keeps the positions for the next translation.
+	 * 
+	 * The translated bytes are written from the offset.
+	 * If the unsupported letters are removed, the translated bytes are packed to the front,
+	 * and the bytes after the produced bytes are left as they are.
+	 * If an unsupported letter is found with EXCEPTION, the letters before it are already translated in place,
+	 * and this session keeps their key presses as {@link #translate(ByteBuffer, ByteBuffer, UnsupportedLetterHandling)} does.
+	 * 
+	 * @param buf buffer
+	 * @param off offset
+	 * @param len length
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return counts of the consumed and produced bytes
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and buf contains unsupported letters.
+	 * @throws IllegalStateException thrown when the letters of the machine are not in the ISO-8859-1 range.
+	 */
+	public TranslationResult translate(byte[] buf, int off, int len, UnsupportedLetterHandling unsupportedLetterHandling) {
+		// The produced bytes never overtake the consumed bytes
+		return translate(ByteBuffer.wrap(buf, off, len), ByteBuffer.wrap(buf, off, len), unsupportedLetterHandling);
+	}
+	
+	/**
+	 * Translates the stream, and keeps the positions for the next translation.
+	 * 
+	 * The stream is read and written piece by piece, the whole text is not held in memory.
+	 * The streams are not closed.
+	 * 
+	 * @param in input stream
+	 * @param out output stream
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @throws IOException thrown when an I/O error occurs
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public void translate(Reader in, Writer out, UnsupportedLetterHandling unsupportedLetterHandling) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			// Translate in place
+			int produced = translate(buffer, 0, len, buffer, 0, unsupportedLetterHandling);
+			out.write(buffer, 0, produced);
+		}
+		out.flush();
+	}
+}
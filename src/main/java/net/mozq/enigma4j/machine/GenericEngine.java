@@ -0,0 +1,141 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Generic engine.
+ * 
+ * This engine loops over the wheels, so it works with any wheel layout.
+ */
+final class GenericEngine extends Engine {
+	
+	/** Count of letters */
+	private final int size;
+	
+	/** Whether the turnover mechanism is cog-wheel driven */
+	private final boolean cogWheel;
+	
+	/** Entry forward table */
+	private final int[] entryForward;
+	
+	/** Entry backward table */
+	private final int[] entryBackward;
+	
+	/** Wheel forward tables */
+	private final int[][] wheelForward;
+	
+	/** Wheel backward tables */
+	private final int[][] wheelBackward;
+	
+	/** Wheel turnable flags */
+	private final boolean[] turnable;
+	
+	/** Wheel turnover positions */
+	private final boolean[][] turnover;
+	
+	/** Whether the wheel turnover engages the next wheel */
+	private final boolean[] engageable;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 */
+	GenericEngine(CompiledEnigma compiled) {
+		int count = compiled.wheelCount();
+		
+		this.size = compiled.size();
+		this.cogWheel = (compiled.turnoverMechanism() == TurnoverMechanism.COG_WHEEL);
+		this.entryForward = compiled.entryForward();
+		this.entryBackward = compiled.entryBackward();
+		this.wheelForward = new int[count][];
+		this.wheelBackward = new int[count][];
+		this.turnable = new boolean[count];
+		this.turnover = new boolean[count][];
+		this.engageable = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			this.wheelForward[i] = compiled.wheelForward(i);
+			this.wheelBackward[i] = compiled.wheelBackward(i);
+			this.turnable[i] = compiled.isTurnable(i);
+			this.turnover[i] = compiled.turnover(i);
+			this.engageable[i] = compiled.isEngageable(i);
+		}
+	}
+	
+	/**
+	 * Turns the wheels by one key press.
+	 * 
+	 * This is the iterative form of the stepping in the scrambler chain.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 */
+	@Override
+	void turn(int[] positions) {
+		boolean cogWheel = this.cogWheel;
+		boolean force = true;
+		for (int i = 0; i < positions.length; i++) {
+			if (!this.turnable[i]) {
+				// Skip non turnable slot
+				continue;
+			}
+			
+			boolean turn = force;
+			boolean turnover = this.turnover[i][positions[i]];
+			if (cogWheel) {
+				// The cog-wheel driven wheel turnover mechanism
+				
+				if (turnover) {
+					turn = true;
+				}
+				force = turnover;
+			} else {
+				// The regular wheel turnover mechanism (with double stepping)
+				
+				if (turnover && this.engageable[i]) {
+					turn = true;
+					force = true;
+				} else {
+					force = false;
+				}
+			}
+			
+			if (turn) {
+				positions[i] = (positions[i] + 1 == this.size) ? 0 : positions[i] + 1;
+			}
+			
+			if (cogWheel && !force) {
+				break;
+			}
+		}
+	}
+	
+	@Override
+	int scramble(int[] positions, int number) {
+		int size = this.size;
+		int last = positions.length - 1;
+		
+		number = this.entryForward[number];
+		for (int i = 0; i < last; i++) {
+			number = this.wheelForward[i][positions[i] * size + number];
+		}
+		number = this.wheelForward[last][positions[last] * size + number];
+		for (int i = last - 1; 0 <= i; i--) {
+			number = this.wheelBackward[i][positions[i] * size + number];
+		}
+		return this.entryBackward[number];
+	}
+}
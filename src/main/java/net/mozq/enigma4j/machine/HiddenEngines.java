@@ -0,0 +1,49 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Engines defined as hidden classes.
+ * 
+ * This is the class for Java 11, which has no hidden classes, so no engine is defined.
+ * The multi-release JAR contains the class for Java 17 which defines the engine of each compiled machine as a hidden class.
+ */
+final class HiddenEngines {
+	
+	private HiddenEngines() {
+		// NOP
+	}
+	
+	/**
+	 * Returns whether the engines are defined as hidden classes.
+	 * 
+	 * @return true if defined
+	 */
+	static boolean isSupported() {
+		return false;
+	}
+	
+	/**
+	 * Returns the engine defined as a hidden class for the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @return engine, or null if the hidden classes are not supported
+	 */
+	static Engine of(CompiledEnigma compiled) {
+		return null;
+	}
+}
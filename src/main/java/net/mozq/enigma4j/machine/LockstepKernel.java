@@ -0,0 +1,54 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Kernel of the lockstep translation.
+ * 
+ * This is the scalar kernel for Java 11.
+ * The multi-release JAR contains the kernel for Java 17 which uses the Vector API when it is available.
+ */
+final class LockstepKernel {
+	
+	private LockstepKernel() {
+		// NOP
+	}
+	
+	/**
+	 * Returns whether the kernel is vectorized.
+	 * 
+	 * @return true if vectorized
+	 */
+	static boolean isVectorized() {
+		return false;
+	}
+	
+	/**
+	 * Applies the permutation to the numbers.
+	 * 
+	 * @param permutation permutation
+	 * @param src source numbers
+	 * @param dst destination numbers
+	 * @param offset offset of the numbers
+	 * @param count count of the numbers
+	 */
+	static void apply(byte[] permutation, byte[] src, byte[] dst, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			dst[i] = permutation[src[i]];
+		}
+	}
+}
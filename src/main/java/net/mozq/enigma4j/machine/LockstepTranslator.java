@@ -0,0 +1,150 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lockstep translator.
+ * 
+ * This translates many independent messages under one key.
+ * Every message starts from the same positions, so the n-th key press of every message is scrambled
+ * by the same permutation. The messages are translated in lockstep:
+ * the permutation is computed once per key press and applied to the n-th letters of all messages at once.
+ * 
+ * On Java 17 or later with the incubator module jdk.incubator.vector added (--add-modules jdk.incubator.vector),
+ * the permutation is applied by the Vector API. Otherwise it is applied by the scalar loop.
+ * 
+ * This class is thread-safe.
+ */
+public final class LockstepTranslator {
+	
+	/** Compiled machine */
+	private final CompiledEnigma compiled;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 */
+	private LockstepTranslator(CompiledEnigma compiled) {
+		this.compiled = compiled;
+	}
+	
+	/**
+	 * Returns the lockstep translator of the machine.
+	 * 
+	 * The machine is compiled, so changes to the machine after this call are not reflected.
+	 * 
+	 * @param machine Enigma machine
+	 * @return lockstep translator
+	 */
+	public static LockstepTranslator of(EnigmaMachine machine) {
+		return new LockstepTranslator(machine.compile());
+	}
+	
+	/**
+	 * Returns whether the permutations are applied by the Vector API.
+	 * 
+	 * @return true if vectorized
+	 */
+	public static boolean isVectorized() {
+		return LockstepKernel.isVectorized();
+	}
+	
+	/**
+	 * Translates each message from the starting positions of the machine.
+	 * 
+	 * The translated values are the same as {@link EnigmaMachine#translate(String, UnsupportedLetterHandling)}
+	 * of each message, but the scramble tracker is not called.
+	 * 
+	 * @param messages messages
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated messages in the order of the messages
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and messages contain unsupported letters.
+	 */
+	public List<String> translate(List<? extends CharSequence> messages, UnsupportedLetterHandling unsupportedLetterHandling) {
+		Alphabet alphabet = this.compiled.alphabet();
+		int size = this.compiled.size();
+		int messageCount = messages.size();
+		
+		// Count the key presses
+		int stepCount = 0;
+		for (CharSequence message : messages) {
+			int count = 0;
+			for (int i = 0; i < message.length(); i++) {
+				char letter = message.charAt(i);
+				if (alphabet.contains(letter)) {
+					count++;
+				} else if (unsupportedLetterHandling == UnsupportedLetterHandling.EXCEPTION) {
+					throw new UnsupportedLetterException(letter);
+				}
+			}
+			stepCount = Math.max(stepCount, count);
+		}
+		
+		// Numbers [step * messageCount + message]
+		byte[] src = new byte[stepCount * messageCount];
+		for (int m = 0; m < messageCount; m++) {
+			CharSequence message = messages.get(m);
+			int step = 0;
+			for (int i = 0; i < message.length(); i++) {
+				int code = alphabet.encode(message.charAt(i));
+				if (code != -1) {
+					src[step++ * messageCount + m] = (byte)Alphabet.number(code);
+				}
+			}
+		}
+		
+		// Scramble in lockstep
+		byte[] dst = new byte[src.length];
+		byte[] permutation = new byte[size];
+		int[] positions = this.compiled.positions();
+		for (int step = 0; step < stepCount; step++) {
+			this.compiled.turn(positions);
+			for (int number = 0; number < size; number++) {
+				permutation[number] = (byte)this.compiled.scramble(positions, number);
+			}
+			LockstepKernel.apply(permutation, src, dst, step * messageCount, messageCount);
+		}
+		
+		// Decode
+		List<String> list = new ArrayList<>(messageCount);
+		StringBuilder sb = new StringBuilder();
+		for (int m = 0; m < messageCount; m++) {
+			CharSequence message = messages.get(m);
+			sb.setLength(0);
+			int step = 0;
+			for (int i = 0; i < message.length(); i++) {
+				char letter = message.charAt(i);
+				int code = alphabet.encode(letter);
+				if (code == -1) {
+					if (unsupportedLetterHandling != UnsupportedLetterHandling.REMOVAL) {
+						sb.append(letter);
+					}
+					continue;
+				}
+				
+				sb.append(alphabet.decode(dst[step++ * messageCount + m], code));
+			}
+			list.add(sb.toString());
+		}
+		return Collections.unmodifiableList(list);
+	}
+}
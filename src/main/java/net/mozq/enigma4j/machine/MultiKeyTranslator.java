@@ -0,0 +1,213 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-key translator.
+ * 
+ * This translates one text value under many keys (e.g. the candidate keys of a cryptanalytic sweep).
+ * The text value is encoded once and shared by all keys,
+ * and each key runs its compiled engine over the encoded letters.
+ * The scores are computed from the scrambled numbers without building the translated strings.
+ * 
+ * This class is thread-safe.
+ */
+public final class MultiKeyTranslator {
+	
+	/** Compiled machines */
+	private final CompiledEnigma[] keys;
+	
+	/** Alphabet */
+	private final Alphabet alphabet;
+	
+	/**
+	 * Constructs with the compiled machines.
+	 * 
+	 * @param keys compiled machines
+	 */
+	private MultiKeyTranslator(CompiledEnigma[] keys) {
+		this.keys = keys;
+		this.alphabet = keys[0].alphabet();
+	}
+	
+	/**
+	 * Returns the multi-key translator of the configured machines.
+	 * 
+	 * The machines are compiled, so changes to the machines after this call are not reflected.
+	 * 
+	 * @param machines configured machines (keys)
+	 * @return multi-key translator
+	 * @throws IllegalArgumentException If the machines are empty, or the letters of the machines don't match
+	 */
+	public static MultiKeyTranslator of(Collection<EnigmaMachine> machines) {
+		if (machines.isEmpty()) {
+			throw new IllegalArgumentException("Machines are empty.");
+		}
+		
+		CompiledEnigma[] keys = new CompiledEnigma[machines.size()];
+		int i = 0;
+		for (EnigmaMachine machine : machines) {
+			keys[i] = machine.compile();
+			if (!keys[i].alphabet().equals(keys[0].alphabet())) {
+				throw new IllegalArgumentException("Letters of the machines don't match. machine: " + machine.name());
+			}
+			i++;
+		}
+		
+		return new MultiKeyTranslator(keys);
+	}
+	
+	/**
+	 * Returns the count of the keys.
+	 * 
+	 * @return count of the keys
+	 */
+	public int keyCount() {
+		return this.keys.length;
+	}
+	
+	/**
+	 * Translates the text value under each key.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated values in the order of the keys
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public List<String> translate(CharSequence value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		int len = value.length();
+		int[] codes = new int[len];
+		for (int i = 0; i < len; i++) {
+			char letter = value.charAt(i);
+			codes[i] = this.alphabet.encode(letter);
+			if (codes[i] == -1 && unsupportedLetterHandling == UnsupportedLetterHandling.EXCEPTION) {
+				throw new UnsupportedLetterException(letter);
+			}
+		}
+		
+		List<String> list = new ArrayList<>(this.keys.length);
+		char[] buffer = new char[len];
+		for (CompiledEnigma key : this.keys) {
+			int[] positions = key.positions();
+			int produced = 0;
+			for (int i = 0; i < len; i++) {
+				int code = codes[i];
+				if (code == -1) {
+					if (unsupportedLetterHandling != UnsupportedLetterHandling.REMOVAL) {
+						buffer[produced++] = value.charAt(i);
+					}
+					continue;
+				}
+				
+				key.turn(positions);
+				buffer[produced++] = this.alphabet.decode(key.scramble(positions, Alphabet.number(code)), code);
+			}
+			list.add(new String(buffer, 0, produced));
+		}
+		return Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Returns the index of coincidence of the translated letters under each key.
+	 * 
+	 * The unsupported letters are ignored.
+	 * The index of coincidence of a plain text is higher than the one of a random text.
+	 * 
+	 * @param value text value
+	 * @return indexes of coincidence in the order of the keys
+	 */
+	public double[] indexOfCoincidence(CharSequence value) {
+		int[] numbers = numbers(value);
+		int size = this.alphabet.size();
+		long pairs = (long)numbers.length * (numbers.length - 1);
+		
+		double[] scores = new double[this.keys.length];
+		int[] counts = new int[size];
+		for (int k = 0; k < this.keys.length; k++) {
+			CompiledEnigma key = this.keys[k];
+			int[] positions = key.positions();
+			for (int number : numbers) {
+				key.turn(positions);
+				counts[key.scramble(positions, number)]++;
+			}
+			
+			long sum = 0;
+			for (int n = 0; n < size; n++) {
+				sum += (long)counts[n] * (counts[n] - 1);
+				counts[n] = 0;
+			}
+			scores[k] = (pairs == 0) ? 0 : (double)sum / pairs;
+		}
+		return scores;
+	}
+	
+	/**
+	 * Returns the count of the translated letters which match the crib under each key.
+	 * 
+	 * The letters are compared ignoring the case, in the order of the key presses.
+	 * The unsupported letters of the text value and the crib are ignored.
+	 * 
+	 * @param value text value
+	 * @param crib expected translated value (e.g. the known plain text)
+	 * @return counts of the matched letters in the order of the keys
+	 */
+	public int[] matchCount(CharSequence value, CharSequence crib) {
+		int[] numbers = numbers(value);
+		int[] expected = numbers(crib);
+		int len = Math.min(numbers.length, expected.length);
+		
+		int[] scores = new int[this.keys.length];
+		for (int k = 0; k < this.keys.length; k++) {
+			CompiledEnigma key = this.keys[k];
+			int[] positions = key.positions();
+			int count = 0;
+			for (int i = 0; i < len; i++) {
+				key.turn(positions);
+				if (key.scramble(positions, numbers[i]) == expected[i]) {
+					count++;
+				}
+			}
+			scores[k] = count;
+		}
+		return scores;
+	}
+	
+	/**
+	 * Returns the numbers of the supported letters.
+	 * 
+	 * @param value text value
+	 * @return numbers (0-based)
+	 */
+	private int[] numbers(CharSequence value) {
+		int len = value.length();
+		int[] numbers = new int[len];
+		int count = 0;
+		for (int i = 0; i < len; i++) {
+			int code = this.alphabet.encode(value.charAt(i));
+			if (code != -1) {
+				numbers[count++] = Alphabet.number(code);
+			}
+		}
+		return (count == len) ? numbers : Arrays.copyOf(numbers, count);
+	}
+}
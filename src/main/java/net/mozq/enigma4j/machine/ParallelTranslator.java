@@ -0,0 +1,203 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel translator.
+ * 
+ * The text is split into chunks, and each chunk is translated on its own thread from its start state.
+ * The start state of a chunk is found by skipping the count of the key presses in the preceding chunks.
+ * The key presses are counted in the first pass, because the unsupported letters don't press the keys.
+ */
+final class ParallelTranslator {
+	
+	/** Minimum chunk size */
+	private static final int MIN_CHUNK_SIZE = 1 << 16;
+	
+	/** Chunks per thread */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/** Block size of the stream translation */
+	private static final int BLOCK_SIZE = 1 << 22;
+	
+	/** Compiled machine */
+	private final CompiledEnigma compiled;
+	
+	/** Unsupported letter handling */
+	private final UnsupportedLetterHandling unsupportedLetterHandling;
+	
+	/** Fork join pool */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @param pool fork join pool
+	 */
+	ParallelTranslator(CompiledEnigma compiled, UnsupportedLetterHandling unsupportedLetterHandling, ForkJoinPool pool) {
+		this.compiled = compiled;
+		this.unsupportedLetterHandling = unsupportedLetterHandling;
+		this.pool = pool;
+	}
+	
+	/**
+	 * Translates the text value.
+	 * 
+	 * @param value text value
+	 * @return translated value
+	 */
+	String translate(CharSequence value) {
+		StringBuilder sb = new StringBuilder(value.length());
+		translate(value, 0, sb);
+		return sb.toString();
+	}
+	
+	/**
+	 * Translates the stream.
+	 * 
+	 * The stream is read in blocks, and each block is translated in parallel.
+	 * 
+	 * @param in input stream
+	 * @param out output stream
+	 * @throws IOException thrown when an I/O error occurs
+	 */
+	void translate(Reader in, Writer out) throws IOException {
+		char[] buffer = new char[BLOCK_SIZE];
+		StringBuilder sb = new StringBuilder();
+		long offset = 0;
+		while (true) {
+			int len = 0;
+			int n;
+			while (len < buffer.length && (n = in.read(buffer, len, buffer.length - len)) != -1) {
+				len += n;
+			}
+			if (len == 0) {
+				break;
+			}
+			
+			sb.setLength(0);
+			offset = translate(CharBuffer.wrap(buffer, 0, len), offset, sb);
+			out.append(sb);
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Translates the text value from the key press offset.
+	 * 
+	 * @param value text value
+	 * @param offset count of the key presses before the text value
+	 * @param sb translated value
+	 * @return count of the key presses after the text value
+	 */
+	private long translate(CharSequence value, long offset, StringBuilder sb) {
+		int len = value.length();
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, len / (this.pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+		int chunkCount = (len + chunkSize - 1) / chunkSize;
+		
+		// Count the key presses
+		List<Callable<long[]>> counters = new ArrayList<>(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			int start = i * chunkSize;
+			int end = Math.min(len, start + chunkSize);
+			counters.add(() -> count(value, start, end));
+		}
+		List<long[]> counts = invokeAll(counters);
+		
+		long[] offsets = new long[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			long[] count = counts.get(i);
+			if (this.unsupportedLetterHandling == UnsupportedLetterHandling.EXCEPTION && count[1] != -1) {
+				throw new UnsupportedLetterException(value.charAt((int)count[1]));
+			}
+			
+			offsets[i] = offset;
+			offset += count[0];
+		}
+		
+		// Translate
+		List<Callable<String>> translators = new ArrayList<>(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			int start = i * chunkSize;
+			int end = Math.min(len, start + chunkSize);
+			long chunkOffset = offsets[i];
+			translators.add(() -> {
+				EnigmaSession session = this.compiled.session();
+				session.skip(chunkOffset);
+				return session.translate(value.subSequence(start, end), this.unsupportedLetterHandling);
+			});
+		}
+		for (String translated : invokeAll(translators)) {
+			sb.append(translated);
+		}
+		
+		return offset;
+	}
+	
+	/**
+	 * Counts the key presses in the range.
+	 * 
+	 * @param value text value
+	 * @param start start index (inclusive)
+	 * @param end end index (exclusive)
+	 * @return count of the key presses, and the index of the first unsupported letter (-1 if not found)
+	 */
+	private long[] count(CharSequence value, int start, int end) {
+		Alphabet alphabet = this.compiled.alphabet();
+		long count = 0;
+		long unsupported = -1;
+		for (int i = start; i < end; i++) {
+			if (alphabet.contains(value.charAt(i))) {
+				count++;
+			} else if (unsupported == -1) {
+				unsupported = i;
+			}
+		}
+		return new long[] { count, unsupported };
+	}
+	
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for (Future<T> future : this.pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return results;
+	}
+}
@@ -0,0 +1,422 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import net.mozq.enigma4j.jfr.CacheEvent;
+import net.mozq.enigma4j.jfr.EnigmaEvents;
+import net.mozq.enigma4j.scrambler.Reflector;
+import net.mozq.enigma4j.scrambler.Scrambler;
+
+/**
+ * Permutation table.
+ * 
+ * For one key (wheel order, ring settings, reflector and plugboard), the whole machine is a single permutation
+ * of the letters per wheel positions.
+ * This table stores the permutations of all wheel positions in one packed byte array,
+ * so a letter is translated by one stepping and one array load.
+ * 
+ * The indexed wheels are the turnable wheels and the settable reflector.
+ * The positions of the other wheels (e.g. the fourth rotor of the Enigma M4) are a part of the key.
+ * 
+ * The permutations are built lazily on the first translation and shared in a bounded LRU cache
+ * between the machines of the same key.
+ * 
+ * This class is thread-safe.
+ */
+public final class PermutationTable {
+	
+	/** Default cache capacity */
+	private static final int DEFAULT_CACHE_CAPACITY = 8;
+	
+	/** Cache capacity */
+	private static int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+	
+	/** Cache */
+	private static final Map<Key, Permutations> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+		
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Permutations> eldest) {
+			return cacheCapacity < size();
+		}
+	};
+	
+	/** Compiled machine */
+	private final CompiledEnigma compiled;
+	
+	/** Indexed wheels */
+	private final int[] indexedWheels;
+	
+	/** Permutations */
+	private final Permutations permutations;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 */
+	private PermutationTable(CompiledEnigma compiled) {
+		this.compiled = compiled;
+		this.indexedWheels = indexedWheels(compiled);
+		
+		CacheEvent event = EnigmaEvents.isRecorderInitialized() ? new CacheEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
+		Key key = new Key(compiled, this.indexedWheels);
+		synchronized (CACHE) {
+			Permutations permutations = CACHE.get(key);
+			boolean hit = (permutations != null);
+			if (!hit) {
+				permutations = new Permutations(compiled, this.indexedWheels);
+				CACHE.put(key, permutations);
+			}
+			this.permutations = permutations;
+			
+			if (event != null && event.shouldCommit()) {
+				event.cache = PermutationTable.class.getSimpleName();
+				event.hit = hit;
+				event.entries = CACHE.size();
+				event.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the permutation table of the machine.
+	 * 
+	 * The permutations are shared with the machines of the same key.
+	 * 
+	 * @param machine Enigma machine
+	 * @return permutation table
+	 */
+	public static PermutationTable of(EnigmaMachine machine) {
+		return new PermutationTable(machine.compile());
+	}
+	
+	/**
+	 * Set the cache capacity.
+	 * 
+	 * @param capacity cache capacity (count of keys)
+	 */
+	public static void setCacheCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity is out of range. capacity: " + capacity);
+		}
+		
+		synchronized (CACHE) {
+			cacheCapacity = capacity;
+			
+			while (cacheCapacity < CACHE.size()) {
+				CACHE.remove(CACHE.keySet().iterator().next());
+			}
+		}
+	}
+	
+	/**
+	 * Clears the cache.
+	 */
+	public static void clearCache() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+	
+	/**
+	 * Returns whether the permutations of the machine are cached.
+	 * 
+	 * @param machine Enigma machine
+	 * @return true if cached
+	 */
+	static boolean isCached(EnigmaMachine machine) {
+		CompiledEnigma compiled = machine.compile();
+		Key key = new Key(compiled, indexedWheels(compiled));
+		synchronized (CACHE) {
+			return CACHE.containsKey(key);
+		}
+	}
+	
+	/**
+	 * Returns the machine name.
+	 * 
+	 * @return machine name
+	 */
+	public String name() {
+		return this.compiled.name();
+	}
+	
+	/**
+	 * Returns the count of the wheel positions in this table.
+	 * 
+	 * @return count of the wheel positions
+	 */
+	public int stateCount() {
+		return this.permutations.stateCount;
+	}
+	
+	/**
+	 * Returns whether the permutations are shared with the other table.
+	 * 
+	 * @param other other table
+	 * @return true if shared
+	 */
+	boolean isShared(PermutationTable other) {
+		return this.permutations == other.permutations;
+	}
+	
+	/**
+	 * Translates the text value.
+	 * 
+	 * @param value text value
+	 * @return translated value
+	 * @see #translate(String, UnsupportedLetterHandling)
+	 */
+	public String translate(String value) {
+		return translate(value, UnsupportedLetterHandling.PATH_THROUGH);
+	}
+	
+	/**
+	 * Translates the text value.
+	 * 
+	 * If it is a plain value, the encrypted value will be returned.
+	 * If it is an encrypted value, the decrypted value will be returned.
+	 * 
+	 * The case of letters is preserved.
+	 * 
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated value
+	 * @throws UnsupportedLetterException thrown when unsupportedLetterHandling is set EXCEPTION and value contains unsupported letters.
+	 */
+	public String translate(String value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		byte[] table = this.permutations.table();
+		Alphabet alphabet = this.compiled.alphabet();
+		int size = this.compiled.size();
+		int[] positions = this.compiled.positions();
+		
+		int len = value.length();
+		
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			char letter = value.charAt(i);
+			
+			// Letter number and case
+			int code = alphabet.encode(letter);
+			if (code == -1) {
+				switch (unsupportedLetterHandling) {
+				case EXCEPTION: throw new UnsupportedLetterException(letter);
+				case REMOVAL: continue;
+				default /* Path through */: sb.append(letter); continue;
+				}
+			}
+			
+			this.compiled.turn(positions);
+			int number = table[index(positions) * size + Alphabet.number(code)];
+			
+			// Preserve the case of the original letter
+			sb.append(alphabet.decode(number, code));
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns the index of the wheel positions.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 * @return index
+	 */
+	private int index(int[] positions) {
+		int size = this.compiled.size();
+		int index = 0;
+		for (int i = this.indexedWheels.length - 1; 0 <= i; i--) {
+			index = index * size + positions[this.indexedWheels[i]];
+		}
+		return index;
+	}
+	
+	/**
+	 * Returns the indexed wheels.
+	 * 
+	 * @param compiled compiled machine
+	 * @return indexed wheels
+	 */
+	private static int[] indexedWheels(CompiledEnigma compiled) {
+		boolean settableReflector = compiled.spec().hasFeature(EnigmaFeature.SETTABLE_REFLECTOR);
+		
+		return IntStream.range(0, compiled.wheelCount())
+				.filter(i -> compiled.isTurnable(i) || (settableReflector && compiled.wheel(i) instanceof Reflector))
+				.toArray();
+	}
+	
+	/**
+	 * Cache key.
+	 */
+	private static final class Key {
+		
+		/** Enigma machine specification */
+		private final EnigmaMachineSpec spec;
+		
+		/** Entry forward table (plugboard and entry wheel) */
+		private final int[] entryForward;
+		
+		/** Wheels */
+		private final Scrambler[] wheels;
+		
+		/** Positions of the wheels which are not indexed, -1 for the indexed wheels */
+		private final int[] fixedPositions;
+		
+		/**
+		 * Constructs with the compiled machine.
+		 * 
+		 * @param compiled compiled machine
+		 * @param indexedWheels indexed wheels
+		 */
+		Key(CompiledEnigma compiled, int[] indexedWheels) {
+			this.spec = compiled.spec();
+			this.entryForward = compiled.entryForward();
+			this.wheels = new Scrambler[compiled.wheelCount()];
+			this.fixedPositions = compiled.positions();
+			for (int i = 0; i < this.wheels.length; i++) {
+				this.wheels[i] = compiled.wheel(i);
+			}
+			for (int i : indexedWheels) {
+				this.fixedPositions[i] = -1;
+			}
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			
+			if (obj == null) {
+				return false;
+			}
+			
+			if (obj.getClass() != getClass()) {
+				return false;
+			}
+			
+			Key o = (Key)obj;
+			return Objects.equals(o.spec, this.spec) &&
+					Arrays.equals(o.entryForward, this.entryForward) &&
+					Arrays.equals(o.wheels, this.wheels) &&
+					Arrays.equals(o.fixedPositions, this.fixedPositions);
+		}
+		
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 17;
+			result = prime * result + Objects.hashCode(this.spec);
+			result = prime * result + Arrays.hashCode(this.entryForward);
+			result = prime * result + Arrays.hashCode(this.wheels);
+			result = prime * result + Arrays.hashCode(this.fixedPositions);
+			return result;
+		}
+	}
+	
+	/**
+	 * Lazily built permutations.
+	 */
+	private static final class Permutations {
+		
+		/** Compiled machine */
+		private CompiledEnigma compiled;
+		
+		/** Indexed wheels */
+		private final int[] indexedWheels;
+		
+		/** Count of the wheel positions */
+		private final int stateCount;
+		
+		/** Packed permutations [index * size + number] */
+		private volatile byte[] table;
+		
+		/**
+		 * Constructs with the compiled machine.
+		 * 
+		 * @param compiled compiled machine
+		 * @param indexedWheels indexed wheels
+		 */
+		Permutations(CompiledEnigma compiled, int[] indexedWheels) {
+			long stateCount = 1;
+			for (int i = 0; i < indexedWheels.length; i++) {
+				stateCount *= compiled.size();
+			}
+			if (Integer.MAX_VALUE < stateCount * compiled.size()) {
+				throw new IllegalStateException("Too many wheel positions. stateCount: " + stateCount);
+			}
+			
+			this.compiled = compiled;
+			this.indexedWheels = indexedWheels;
+			this.stateCount = (int)stateCount;
+			this.table = null;
+		}
+		
+		/**
+		 * Returns the packed permutations, building them on the first call.
+		 * 
+		 * @return packed permutations
+		 */
+		byte[] table() {
+			byte[] table = this.table;
+			if (table == null) {
+				synchronized (this) {
+					table = this.table;
+					if (table == null) {
+						table = build();
+						this.table = table;
+						this.compiled = null;
+					}
+				}
+			}
+			return table;
+		}
+		
+		private byte[] build() {
+			int size = this.compiled.size();
+			int[] positions = this.compiled.positions();
+			
+			byte[] table = new byte[this.stateCount * size];
+			for (int index = 0; index < this.stateCount; index++) {
+				int rest = index;
+				for (int i : this.indexedWheels) {
+					positions[i] = rest % size;
+					rest /= size;
+				}
+				
+				int base = index * size;
+				for (int number = 0; number < size; number++) {
+					table[base + number] = (byte)this.compiled.scramble(positions, number);
+				}
+			}
+			return table;
+		}
+	}
+}
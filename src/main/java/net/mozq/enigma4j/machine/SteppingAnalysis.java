@@ -0,0 +1,191 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Stepping analysis.
+ * 
+ * The wheel positions after the key presses are eventually periodic:
+ * after the pre-period (the key presses before the stepping enters its cycle), the positions repeat every period.
+ * The regular stepping of three single-notch rotors has the period 26 * 25 * 26, not 26 * 26 * 26,
+ * because the double stepping of the middle rotor skips the states.
+ * The multi-notch rotors (e.g. the Enigma T, the Enigma KD and the Enigma G-111) shorten the period more, depending on the wheel order.
+ * 
+ * The analysis is computed once from the stepping table in time linear in the count of the states,
+ * and shared between the machines of the same wheel order (the ring settings and the positions do not change the stepping table).
+ * 
+ * <pre>
+ * SteppingAnalysis analysis = SteppingAnalysis.of(enigmaMachine);
+ * long period = analysis.period();
+ * long prePeriod = analysis.prePeriod();
+ * </pre>
+ * 
+ * This class is thread-safe.
+ */
+public final class SteppingAnalysis {
+	
+	/** Machine name */
+	private final String name;
+	
+	/** Stepping table */
+	private final SteppingTable steppingTable;
+	
+	/** Starting state */
+	private final int startState;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 */
+	private SteppingAnalysis(CompiledEnigma compiled) {
+		this.name = compiled.name();
+		this.steppingTable = compiled.steppingTable();
+		this.startState = this.steppingTable.encode(compiled.positions());
+	}
+	
+	/**
+	 * Returns the stepping analysis of the machine from its starting positions.
+	 * 
+	 * @param machine Enigma machine
+	 * @return stepping analysis
+	 */
+	public static SteppingAnalysis of(EnigmaMachine machine) {
+		return new SteppingAnalysis(machine.compile());
+	}
+	
+	/**
+	 * Returns the machine name.
+	 * 
+	 * @return machine name
+	 */
+	public String name() {
+		return this.name;
+	}
+	
+	/**
+	 * Returns the count of the turnable wheels (including the turnable reflector).
+	 * 
+	 * @return count of the turnable wheels
+	 */
+	public int turnableWheelCount() {
+		return this.steppingTable.turnableWheelCount();
+	}
+	
+	/**
+	 * Returns the count of the stepping states (the count of letters to the power of the count of the turnable wheels).
+	 * This is the upper bound of the period.
+	 * 
+	 * @return count of the stepping states
+	 */
+	public int stateCount() {
+		return this.steppingTable.stateCount();
+	}
+	
+	/**
+	 * Returns the starting state.
+	 * 
+	 * @return starting state
+	 * @see EnigmaSession#state()
+	 */
+	public int startState() {
+		return this.startState;
+	}
+	
+	/**
+	 * Returns the pre-period, the count of the key presses from the starting positions before the stepping enters its cycle.
+	 * 
+	 * @return pre-period
+	 */
+	public long prePeriod() {
+		return this.steppingTable.tailLength(this.startState);
+	}
+	
+	/**
+	 * Returns the period, the count of the key presses after which the positions repeat.
+	 * 
+	 * @return period
+	 */
+	public long period() {
+		return this.steppingTable.cycleLength(this.startState);
+	}
+	
+	/**
+	 * Returns whether the period is shorter than the count of the stepping states
+	 * (e.g. by the double stepping or by the multi-notch rotors).
+	 * 
+	 * @return true if the period is shortened
+	 */
+	public boolean isShortened() {
+		return period() < stateCount();
+	}
+	
+	/**
+	 * Returns the count of the distinct cycles over all starting positions of the wheel order.
+	 * 
+	 * @return count of the cycles
+	 */
+	public int cycleCount() {
+		return this.steppingTable.cycleCount();
+	}
+	
+	/**
+	 * Returns the max pre-period over all starting positions of the wheel order.
+	 * 
+	 * @return max pre-period
+	 */
+	public long maxPrePeriod() {
+		return this.steppingTable.maxTailLength();
+	}
+	
+	/**
+	 * Returns the state after the count of the key presses from the starting positions.
+	 * 
+	 * @param offset count of the key presses
+	 * @return state
+	 * @see EnigmaSession#state()
+	 */
+	public int stateAt(long offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset is out of range. offset: " + offset);
+		}
+		
+		return this.steppingTable.skip(this.startState, offset);
+	}
+	
+	/**
+	 * Returns the count of the key presses from the starting positions to the first visit of the state.
+	 * 
+	 * The state is the state of a session of the same wheel order.
+	 * 
+	 * @param state state
+	 * @return count of the key presses, -1 if the state is never visited
+	 * @see EnigmaSession#state()
+	 */
+	public long offsetOf(int state) {
+		if (state < 0 || stateCount() <= state) {
+			throw new IllegalArgumentException("State is out of range. state: " + state);
+		}
+		
+		return this.steppingTable.offsetOf(this.startState, state);
+	}
+	
+	@Override
+	public String toString() {
+		return this.name + "; prePeriod=" + prePeriod() + ", period=" + period() + ", stateCount=" + stateCount();
+	}
+}
@@ -0,0 +1,577 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import net.mozq.enigma4j.jfr.CacheEvent;
+import net.mozq.enigma4j.jfr.EnigmaEvents;
+
+/**
+ * Stepping table.
+ * 
+ * The positions of the turnable wheels are encoded into one integer state (mixed radix, the first turnable wheel is the lowest digit).
+ * The turnable reflector (e.g. the Enigma Z and the Enigma G) is a digit of the state as well.
+ * The stepping is a deterministic function of the state, precomputed as the transition table.
+ * The stepping function is decomposed into the cycles and the tails leading to them,
+ * so the state after (or before) N key presses is found without pressing keys N times.
+ * 
+ * The table depends only on the turnover notches of the wheel order and the turnover mechanism,
+ * so it is shared in a bounded LRU cache between the machines of the same wheel order.
+ * Building the table enumerates all the states, so it is built only when the positions are moved
+ * without pressing keys (e.g. {@link EnigmaSession#skip(long)}).
+ * A key press is not stepped by the table: the engine scrambles by the wheel positions,
+ * and turning them is cheaper than decoding the next state into them.
+ */
+final class SteppingTable {
+	
+	/** Cache capacity */
+	private static final int CACHE_CAPACITY = 16;
+	
+	/** Cache */
+	private static final Map<Key, SteppingTable> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+		
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, SteppingTable> eldest) {
+			return CACHE_CAPACITY < size();
+		}
+	};
+	
+	/** Count of letters */
+	private final int size;
+	
+	/** Turnable wheels */
+	private final int[] turnableWheels;
+	
+	/** Count of the states */
+	private final int stateCount;
+	
+	/** Next states [state] */
+	private final int[] next;
+	
+	/** Positions of the turnable wheels [state * turnable wheel count + turnable wheel] */
+	private final byte[] digits;
+	
+	/** Cycles (built lazily) */
+	private volatile Cycles cycles;
+	
+	/**
+	 * Constructs with the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @param turnableWheels turnable wheels
+	 */
+	private SteppingTable(CompiledEnigma compiled, int[] turnableWheels) {
+		this.size = compiled.size();
+		this.turnableWheels = turnableWheels;
+		
+		long stateCount = 1;
+		for (int i = 0; i < this.turnableWheels.length; i++) {
+			stateCount *= this.size;
+		}
+		if (Integer.MAX_VALUE < stateCount * this.turnableWheels.length) {
+			throw new IllegalStateException("Too many states. stateCount: " + stateCount);
+		}
+		this.stateCount = (int)stateCount;
+		
+		// Digits
+		int len = this.turnableWheels.length;
+		this.digits = new byte[this.stateCount * len];
+		for (int state = 0; state < this.stateCount; state++) {
+			int rest = state;
+			for (int i = 0; i < len; i++) {
+				this.digits[state * len + i] = (byte)(rest % this.size);
+				rest /= this.size;
+			}
+		}
+		
+		// Transitions
+		int[] positions = compiled.positions();
+		this.next = new int[this.stateCount];
+		for (int state = 0; state < this.stateCount; state++) {
+			decode(state, positions);
+			compiled.turn(positions);
+			this.next[state] = encode(positions);
+		}
+	}
+	
+	/**
+	 * Returns the stepping table of the compiled machine.
+	 * 
+	 * The table is shared with the machines of the same wheel order.
+	 * 
+	 * @param compiled compiled machine
+	 * @return stepping table
+	 */
+	static SteppingTable of(CompiledEnigma compiled) {
+		int[] turnableWheels = IntStream.range(0, compiled.wheelCount())
+				.filter(compiled::isTurnable).toArray();
+		
+		CacheEvent event = EnigmaEvents.isRecorderInitialized() ? new CacheEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
+		Key key = new Key(compiled, turnableWheels);
+		SteppingTable steppingTable;
+		synchronized (CACHE) {
+			steppingTable = CACHE.get(key);
+		}
+		boolean hit = (steppingTable != null);
+		if (!hit) {
+			// Built outside the lock, so the machines of the other wheel orders don't wait.
+			// The same table may be built twice concurrently, then the first one put is shared.
+			SteppingTable built = new SteppingTable(compiled, turnableWheels);
+			synchronized (CACHE) {
+				steppingTable = CACHE.putIfAbsent(key, built);
+				if (steppingTable == null) {
+					steppingTable = built;
+				}
+			}
+		}
+		
+		if (event != null && event.shouldCommit()) {
+			event.cache = SteppingTable.class.getSimpleName();
+			event.hit = hit;
+			synchronized (CACHE) {
+				event.entries = CACHE.size();
+			}
+			event.commit();
+		}
+		return steppingTable;
+	}
+	
+	/**
+	 * Encodes the positions of the turnable wheels of the compiled machine into the state, without the table.
+	 * 
+	 * The state is the same as {@link #encode(int[])} of the table of the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @param positions wheel positions (0-based)
+	 * @return state
+	 */
+	static int encode(CompiledEnigma compiled, int[] positions) {
+		int state = 0;
+		for (int i = compiled.wheelCount() - 1; 0 <= i; i--) {
+			if (compiled.isTurnable(i)) {
+				state = state * compiled.size() + positions[i];
+			}
+		}
+		return state;
+	}
+	
+	/**
+	 * Returns the count of the states.
+	 * 
+	 * @return count of the states
+	 */
+	int stateCount() {
+		return this.stateCount;
+	}
+	
+	/**
+	 * Returns the max length of the tails.
+	 * 
+	 * @return max length of the tails
+	 */
+	int maxTailLength() {
+		return cycles().maxTailLength;
+	}
+	
+	/**
+	 * Returns the count of the turnable wheels.
+	 * 
+	 * @return count of the turnable wheels
+	 */
+	int turnableWheelCount() {
+		return this.turnableWheels.length;
+	}
+	
+	/**
+	 * Returns the count of the cycles.
+	 * 
+	 * @return count of the cycles
+	 */
+	int cycleCount() {
+		return cycles().cycleLengths.length;
+	}
+	
+	/**
+	 * Returns the length of the tail from the state to the cycle.
+	 * 
+	 * @param state state
+	 * @return length of the tail, 0 if the state is on a cycle
+	 */
+	int tailLength(int state) {
+		return cycles().tailLengths[state];
+	}
+	
+	/**
+	 * Returns the length of the cycle which the state reaches.
+	 * 
+	 * @param state state
+	 * @return length of the cycle
+	 */
+	int cycleLength(int state) {
+		Cycles cycles = cycles();
+		int entry = skip(state, cycles.tailLengths[state]);
+		return cycles.cycleLengths[cycles.cycleNos[entry]];
+	}
+	
+	/**
+	 * Returns the count of the key presses from the starting state to the first visit of the state.
+	 * 
+	 * @param start starting state
+	 * @param state state
+	 * @return count of the key presses, -1 if the state is never visited
+	 */
+	long offsetOf(int start, int state) {
+		Cycles cycles = cycles();
+		
+		// Tail
+		int current = start;
+		long offset = 0;
+		while (cycles.cycleNos[current] == -1) {
+			if (current == state) {
+				return offset;
+			}
+			current = this.next[current];
+			offset++;
+		}
+		
+		// Cycle
+		int cycleNo = cycles.cycleNos[current];
+		if (cycles.cycleNos[state] != cycleNo) {
+			return -1;
+		}
+		int cycleLength = cycles.cycleLengths[cycleNo];
+		return offset + Math.floorMod(cycles.cycleIndexes[state] - cycles.cycleIndexes[current], cycleLength);
+	}
+	
+	/**
+	 * Encodes the positions of the turnable wheels into the state.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 * @return state
+	 */
+	int encode(int[] positions) {
+		int state = 0;
+		for (int i = this.turnableWheels.length - 1; 0 <= i; i--) {
+			state = state * this.size + positions[this.turnableWheels[i]];
+		}
+		return state;
+	}
+	
+	/**
+	 * Decodes the state into the positions of the turnable wheels.
+	 * The positions of the other wheels are not changed.
+	 * 
+	 * @param state state
+	 * @param positions wheel positions (0-based)
+	 */
+	void decode(int state, int[] positions) {
+		int len = this.turnableWheels.length;
+		int base = state * len;
+		for (int i = 0; i < len; i++) {
+			positions[this.turnableWheels[i]] = this.digits[base + i];
+		}
+	}
+	
+	/**
+	 * Returns the next state.
+	 * 
+	 * @param state state
+	 * @return next state
+	 */
+	int next(int state) {
+		return this.next[state];
+	}
+	
+	/**
+	 * Returns the state after the key presses.
+	 * 
+	 * This takes at most {@link #maxTailLength()} steps, regardless of the count of the key presses.
+	 * 
+	 * @param state state
+	 * @param count count of the key presses
+	 * @return state after the key presses
+	 */
+	int skip(int state, long count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count is out of range. count: " + count);
+		}
+		
+		Cycles cycles = cycles();
+		
+		// Tail
+		while (0 < count && cycles.cycleNos[state] == -1) {
+			state = this.next[state];
+			count--;
+		}
+		if (count == 0) {
+			return state;
+		}
+		
+		// Cycle
+		int cycleNo = cycles.cycleNos[state];
+		int cycleLength = cycles.cycleLengths[cycleNo];
+		int index = (int)((cycles.cycleIndexes[state] + count % cycleLength) % cycleLength);
+		return cycles.cycleStates[cycles.cycleStarts[cycleNo] + index];
+	}
+	
+	/**
+	 * Returns the state before the key presses.
+	 * 
+	 * The stepping function is not one-to-one in general (e.g. the double stepping of the middle rotor
+	 * makes the states which have two previous states), so the state is rewound from the starting state
+	 * and the count of the key presses since then.
+	 * On the cycle, the state is rewound along the cycle by the inverse lookup of the cycle index.
+	 * On the tail, the state is found from the starting state.
+	 * This takes at most {@link #maxTailLength()} steps, regardless of the count of the key presses.
+	 * 
+	 * @param start starting state
+	 * @param offset count of the key presses from the starting state to the state
+	 * @param state state
+	 * @param count count of the key presses to rewind
+	 * @return state before the key presses
+	 */
+	int rewind(int start, long offset, int state, long count) {
+		if (count < 0 || offset < count) {
+			throw new IllegalArgumentException("Count is out of range. count: " + count);
+		}
+		
+		Cycles cycles = cycles();
+		long target = offset - count;
+		if (target < cycles.tailLengths[start]) {
+			// Tail
+			return skip(start, target);
+		}
+		
+		// Cycle
+		int cycleNo = cycles.cycleNos[state];
+		int cycleLength = cycles.cycleLengths[cycleNo];
+		int index = (int)Math.floorMod(cycles.cycleIndexes[state] - count % cycleLength, (long)cycleLength);
+		return cycles.cycleStates[cycles.cycleStarts[cycleNo] + index];
+	}
+	
+	/**
+	 * Returns the cycles, building them on the first call.
+	 * 
+	 * @return cycles
+	 */
+	private Cycles cycles() {
+		Cycles cycles = this.cycles;
+		if (cycles == null) {
+			synchronized (this) {
+				cycles = this.cycles;
+				if (cycles == null) {
+					cycles = new Cycles(this.next);
+					this.cycles = cycles;
+				}
+			}
+		}
+		return cycles;
+	}
+	
+	/**
+	 * Cache key.
+	 */
+	private static final class Key {
+		
+		/** Count of letters */
+		private final int size;
+		
+		/** Turnover mechanism */
+		private final TurnoverMechanism turnoverMechanism;
+		
+		/** Turnable wheels */
+		private final int[] turnableWheels;
+		
+		/** Wheel turnover positions [wheel][position] */
+		private final boolean[][] turnover;
+		
+		/** Whether the wheel turnover engages the next wheel */
+		private final boolean[] engageable;
+		
+		/**
+		 * Constructs with the compiled machine.
+		 * 
+		 * @param compiled compiled machine
+		 * @param turnableWheels turnable wheels
+		 */
+		Key(CompiledEnigma compiled, int[] turnableWheels) {
+			this.size = compiled.size();
+			this.turnoverMechanism = compiled.turnoverMechanism();
+			this.turnableWheels = turnableWheels;
+			this.turnover = new boolean[compiled.wheelCount()][];
+			this.engageable = new boolean[compiled.wheelCount()];
+			for (int i = 0; i < this.turnover.length; i++) {
+				this.turnover[i] = compiled.turnover(i);
+				this.engageable[i] = compiled.isEngageable(i);
+			}
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			
+			if (obj == null) {
+				return false;
+			}
+			
+			if (obj.getClass() != getClass()) {
+				return false;
+			}
+			
+			Key o = (Key)obj;
+			return o.size == this.size &&
+					o.turnoverMechanism == this.turnoverMechanism &&
+					Arrays.equals(o.turnableWheels, this.turnableWheels) &&
+					Arrays.deepEquals(o.turnover, this.turnover) &&
+					Arrays.equals(o.engageable, this.engageable);
+		}
+		
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 17;
+			result = prime * result + this.size;
+			result = prime * result + Objects.hashCode(this.turnoverMechanism);
+			result = prime * result + Arrays.hashCode(this.turnableWheels);
+			result = prime * result + Arrays.deepHashCode(this.turnover);
+			result = prime * result + Arrays.hashCode(this.engageable);
+			return result;
+		}
+	}
+	
+	/**
+	 * Cycles of the stepping function.
+	 */
+	private static final class Cycles {
+		
+		/** Cycle numbers of the states, -1 for the states not on a cycle [state] */
+		private final int[] cycleNos;
+		
+		/** Indexes in the cycle of the states [state] */
+		private final int[] cycleIndexes;
+		
+		/** Cycle states, the states of each cycle are stored in order */
+		private final int[] cycleStates;
+		
+		/** Start indexes of the cycles in the cycle states [cycle no] */
+		private final int[] cycleStarts;
+		
+		/** Lengths of the cycles [cycle no] */
+		private final int[] cycleLengths;
+		
+		/** Lengths of the tails, 0 for the states on a cycle [state] */
+		private final int[] tailLengths;
+		
+		/** Max length of the tails */
+		private final int maxTailLength;
+		
+		/**
+		 * Constructs with the transitions.
+		 * 
+		 * @param next next states [state]
+		 */
+		Cycles(int[] next) {
+			int stateCount = next.length;
+			
+			final int unvisited = 0;
+			final int visiting = 1;
+			final int visited = 2;
+			byte[] marks = new byte[stateCount];
+			int[] path = new int[stateCount];
+			this.cycleNos = new int[stateCount];
+			this.cycleIndexes = new int[stateCount];
+			Arrays.fill(this.cycleNos, -1);
+			int[] cycleStates = new int[stateCount];
+			int[] cycleStarts = new int[16];
+			int[] cycleLengths = new int[16];
+			this.tailLengths = new int[stateCount];
+			int maxTailLength = 0;
+			int cycleCount = 0;
+			int cycleStateCount = 0;
+			for (int start = 0; start < stateCount; start++) {
+				if (marks[start] != unvisited) {
+					continue;
+				}
+				
+				int pathLength = 0;
+				int state = start;
+				while (marks[state] == unvisited) {
+					marks[state] = visiting;
+					path[pathLength++] = state;
+					state = next[state];
+				}
+				
+				int tailEnd;
+				int tailLength;
+				if (marks[state] == visiting) {
+					// New cycle
+					if (cycleCount == cycleStarts.length) {
+						cycleStarts = Arrays.copyOf(cycleStarts, cycleCount * 2);
+						cycleLengths = Arrays.copyOf(cycleLengths, cycleCount * 2);
+					}
+					
+					int cycleStart = pathLength - 1;
+					while (path[cycleStart] != state) {
+						cycleStart--;
+					}
+					
+					cycleStarts[cycleCount] = cycleStateCount;
+					cycleLengths[cycleCount] = pathLength - cycleStart;
+					for (int i = cycleStart; i < pathLength; i++) {
+						this.cycleNos[path[i]] = cycleCount;
+						this.cycleIndexes[path[i]] = i - cycleStart;
+						cycleStates[cycleStateCount++] = path[i];
+					}
+					cycleCount++;
+					
+					tailEnd = cycleStart;
+					tailLength = 0;
+				} else {
+					// Joins the visited states
+					tailEnd = pathLength;
+					tailLength = this.tailLengths[state];
+				}
+				
+				for (int i = 0; i < pathLength; i++) {
+					marks[path[i]] = visited;
+				}
+				for (int i = 0; i < tailEnd; i++) {
+					this.tailLengths[path[i]] = tailLength + (tailEnd - i);
+					maxTailLength = Math.max(maxTailLength, this.tailLengths[path[i]]);
+				}
+			}
+			this.cycleStates = Arrays.copyOf(cycleStates, cycleStateCount);
+			this.cycleStarts = Arrays.copyOf(cycleStarts, cycleCount);
+			this.cycleLengths = Arrays.copyOf(cycleLengths, cycleCount);
+			this.maxTailLength = maxTailLength;
+		}
+	}
+}
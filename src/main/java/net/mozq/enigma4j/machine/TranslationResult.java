@@ -0,0 +1,93 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Result of the byte translation.
+ */
+public final class TranslationResult {
+	
+	/** Count of the consumed bytes */
+	private final int consumed;
+	
+	/** Count of the produced bytes */
+	private final int produced;
+	
+	/**
+	 * Constructs with the counts.
+	 * 
+	 * @param consumed count of the consumed bytes
+	 * @param produced count of the produced bytes
+	 */
+	TranslationResult(int consumed, int produced) {
+		this.consumed = consumed;
+		this.produced = produced;
+	}
+	
+	/**
+	 * Returns the count of the consumed bytes.
+	 * 
+	 * @return count of the consumed bytes
+	 */
+	public int consumed() {
+		return this.consumed;
+	}
+	
+	/**
+	 * Returns the count of the produced bytes.
+	 * 
+	 * The produced bytes are fewer than the consumed bytes when the unsupported letters are removed.
+	 * 
+	 * @return count of the produced bytes
+	 */
+	public int produced() {
+		return this.produced;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		
+		if (obj == null) {
+			return false;
+		}
+		
+		if (obj.getClass() != getClass()) {
+			return false;
+		}
+		
+		TranslationResult o = (TranslationResult)obj;
+		return o.consumed == this.consumed &&
+				o.produced == this.produced;
+	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 17;
+		result = prime * result + this.consumed;
+		result = prime * result + this.produced;
+		return result;
+	}
+	
+	@Override
+	public String toString() {
+		return "consumed=" + this.consumed + "; produced=" + this.produced;
+	}
+}
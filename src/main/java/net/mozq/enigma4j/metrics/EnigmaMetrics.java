@@ -0,0 +1,184 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Metrics registry.
+ * 
+ * This counts the translated messages, the enciphered letters, the unsupported letters by the handling,
+ * and the latency histogram per model ({@code EnigmaMachineSpec.name()}).
+ * The counters are striped, so the updates from many threads don't contend.
+ * 
+ * Only {@code EnigmaMachine.translate(String)} and {@code EnigmaMachine.translate(String, UnsupportedLetterHandling)}
+ * record into the global registry when it is enabled.
+ * The byte array and byte buffer translations, the sessions and the parallel translations are not measured.
+ * The global registry is disabled by default.
+ */
+public final class EnigmaMetrics {
+	
+	/** Global registry */
+	private static final EnigmaMetrics GLOBAL = new EnigmaMetrics();
+	
+	/** Metrics by model name */
+	private final Map<String, ModelMetrics> models = new ConcurrentHashMap<>();
+	
+	/** Exporters */
+	private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+	
+	/** Enabled */
+	private volatile boolean enabled;
+	
+	/**
+	 * Constructs the empty and disabled registry.
+	 */
+	public EnigmaMetrics() {
+		this.enabled = false;
+	}
+	
+	/**
+	 * Returns the global registry.
+	 * 
+	 * @return global registry
+	 */
+	public static EnigmaMetrics global() {
+		return GLOBAL;
+	}
+	
+	/**
+	 * Returns whether this registry is enabled.
+	 * 
+	 * @return true if enabled
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+	
+	/**
+	 * Set whether this registry is enabled.
+	 * 
+	 * @param enabled true to enable
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * Returns the metrics of the model, creating on the first call.
+	 * 
+	 * @param model model name
+	 * @return metrics of the model
+	 */
+	public ModelMetrics model(String model) {
+		if (model == null) {
+			throw new IllegalArgumentException("Model cannot be null.");
+		}
+		
+		ModelMetrics metrics = this.models.get(model);
+		if (metrics == null) {
+			metrics = this.models.computeIfAbsent(model, ModelMetrics::new);
+		}
+		return metrics;
+	}
+	
+	/**
+	 * Records a translation of a message.
+	 * 
+	 * @param model model name
+	 * @param letters count of the enciphered letters
+	 * @param unsupportedLetters count of the unsupported letters
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @param latencyNanos latency (nanoseconds)
+	 */
+	public void record(String model, long letters, long unsupportedLetters, UnsupportedLetterHandling unsupportedLetterHandling, long latencyNanos) {
+		model(model).record(letters, unsupportedLetters, unsupportedLetterHandling, latencyNanos);
+	}
+	
+	/**
+	 * Returns the snapshot of the counts.
+	 * 
+	 * @return snapshot
+	 */
+	public MetricsSnapshot snapshot() {
+		return snapshot(false);
+	}
+	
+	/**
+	 * Returns the snapshot of the counts, and resets the counts.
+	 * 
+	 * A concurrent update is counted either in this snapshot or in the next.
+	 * 
+	 * @return snapshot
+	 */
+	public MetricsSnapshot snapshotAndReset() {
+		return snapshot(true);
+	}
+	
+	private MetricsSnapshot snapshot(boolean reset) {
+		Map<String, MetricsSnapshot.Model> models = new LinkedHashMap<>();
+		for (ModelMetrics metrics : new TreeMap<>(this.models).values()) {
+			models.put(metrics.model(), metrics.snapshot(reset));
+		}
+		return new MetricsSnapshot(System.currentTimeMillis(), models);
+	}
+	
+	/**
+	 * Adds the exporter.
+	 * 
+	 * @param exporter exporter
+	 */
+	public void addExporter(MetricsExporter exporter) {
+		if (exporter == null) {
+			throw new IllegalArgumentException("Exporter cannot be null.");
+		}
+		
+		this.exporters.add(exporter);
+	}
+	
+	/**
+	 * Removes the exporter.
+	 * 
+	 * @param exporter exporter
+	 * @return true if removed
+	 */
+	public boolean removeExporter(MetricsExporter exporter) {
+		return this.exporters.remove(exporter);
+	}
+	
+	/**
+	 * Exports the snapshot to all the exporters, and resets the counts.
+	 * 
+	 * Call this periodically (e.g. from a scheduled executor), so that each snapshot holds the counts of the interval.
+	 * 
+	 * @return exported snapshot
+	 */
+	public MetricsSnapshot export() {
+		MetricsSnapshot snapshot = snapshotAndReset();
+		for (MetricsExporter exporter : this.exporters) {
+			exporter.export(snapshot);
+		}
+		return snapshot;
+	}
+}
@@ -0,0 +1,116 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram.
+ * 
+ * The buckets are log-linear like HDR histograms: 16 linear sub-buckets per power of two,
+ * so the relative error of the bucket bounds is 1/16 or less.
+ * Each bucket is a striped counter ({@link LongAdder}), so the concurrent updates don't contend.
+ */
+final class LatencyHistogram {
+	
+	/** Bits of the sub-buckets */
+	private static final int SUB_BUCKET_BITS = 4;
+	
+	/** Count of the sub-buckets per power of two */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	
+	/** Count of the buckets (up to Long.MAX_VALUE) */
+	static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+	
+	/** Counts [bucket index] */
+	private final LongAdder[] counts;
+	
+	/**
+	 * Constructs the empty histogram.
+	 */
+	LatencyHistogram() {
+		this.counts = new LongAdder[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.counts[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Records the value.
+	 * 
+	 * @param value value (negative values are recorded as 0)
+	 */
+	void record(long value) {
+		this.counts[indexOf(Math.max(0, value))].increment();
+	}
+	
+	/**
+	 * Returns the counts, and resets the counts if specified.
+	 * 
+	 * @param reset true to reset the counts
+	 * @return counts [bucket index]
+	 */
+	long[] counts(boolean reset) {
+		long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = reset ? this.counts[i].sumThenReset() : this.counts[i].sum();
+		}
+		return counts;
+	}
+	
+	/**
+	 * Returns the bucket index of the value.
+	 * 
+	 * @param value value (0 or positive)
+	 * @return bucket index
+	 */
+	static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int)value;
+		}
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+	
+	/**
+	 * Returns the lowest value of the bucket.
+	 * 
+	 * @param index bucket index
+	 * @return lowest value
+	 */
+	static long lowerBoundOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		
+		int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		int subBucket = index % SUB_BUCKET_COUNT;
+		return (long)(SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+	
+	/**
+	 * Returns the highest value of the bucket.
+	 * 
+	 * @param index bucket index
+	 * @return highest value
+	 */
+	static long upperBoundOf(int index) {
+		return (index == BUCKET_COUNT - 1) ? Long.MAX_VALUE : lowerBoundOf(index + 1) - 1;
+	}
+}
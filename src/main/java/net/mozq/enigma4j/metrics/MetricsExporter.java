@@ -0,0 +1,35 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+/**
+ * Metrics exporter.
+ * 
+ * An exporter sends the snapshots to a monitoring system.
+ * 
+ * @see EnigmaMetrics#export()
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+	
+	/**
+	 * Exports the snapshot.
+	 * 
+	 * @param snapshot snapshot
+	 */
+	void export(MetricsSnapshot snapshot);
+}
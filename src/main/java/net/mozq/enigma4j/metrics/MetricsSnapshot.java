@@ -0,0 +1,220 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Snapshot of the metrics.
+ */
+public final class MetricsSnapshot {
+	
+	/** Time of the snapshot (milliseconds since the epoch) */
+	private final long timestamp;
+	
+	/** Models by model name */
+	private final Map<String, Model> models;
+	
+	/**
+	 * Constructs with the models.
+	 * 
+	 * @param timestamp time of the snapshot
+	 * @param models models by model name
+	 */
+	MetricsSnapshot(long timestamp, Map<String, Model> models) {
+		this.timestamp = timestamp;
+		this.models = Collections.unmodifiableMap(models);
+	}
+	
+	/**
+	 * Returns the time of the snapshot.
+	 * 
+	 * @return milliseconds since the epoch
+	 */
+	public long timestamp() {
+		return this.timestamp;
+	}
+	
+	/**
+	 * Returns the models by model name.
+	 * 
+	 * @return models
+	 */
+	public Map<String, Model> models() {
+		return this.models;
+	}
+	
+	/**
+	 * Returns the model.
+	 * 
+	 * @param model model name
+	 * @return model, null if not recorded
+	 */
+	public Model model(String model) {
+		return this.models.get(model);
+	}
+	
+	/**
+	 * Snapshot of a model.
+	 */
+	public static final class Model {
+		
+		/** Model name */
+		private final String model;
+		
+		/** Count of the translated messages */
+		private final long messages;
+		
+		/** Count of the enciphered letters */
+		private final long letters;
+		
+		/** Count of the unsupported letters [unsupported letter handling] */
+		private final long[] unsupportedLetters;
+		
+		/** Latency counts [bucket index] */
+		private final long[] latencyCounts;
+		
+		/**
+		 * Constructs with the counts.
+		 * 
+		 * @param model model name
+		 * @param messages count of the translated messages
+		 * @param letters count of the enciphered letters
+		 * @param unsupportedLetters count of the unsupported letters
+		 * @param latencyCounts latency counts
+		 */
+		Model(String model, long messages, long letters, long[] unsupportedLetters, long[] latencyCounts) {
+			this.model = model;
+			this.messages = messages;
+			this.letters = letters;
+			this.unsupportedLetters = unsupportedLetters;
+			this.latencyCounts = latencyCounts;
+		}
+		
+		/**
+		 * Returns the model name.
+		 * 
+		 * @return model name
+		 */
+		public String model() {
+			return this.model;
+		}
+		
+		/**
+		 * Returns the count of the translated messages.
+		 * 
+		 * @return count of the messages
+		 */
+		public long messages() {
+			return this.messages;
+		}
+		
+		/**
+		 * Returns the count of the enciphered letters.
+		 * 
+		 * @return count of the letters
+		 */
+		public long letters() {
+			return this.letters;
+		}
+		
+		/**
+		 * Returns the count of the unsupported letters handled by the unsupported letter handling.
+		 * 
+		 * @param unsupportedLetterHandling unsupported letter handling
+		 * @return count of the unsupported letters
+		 */
+		public long unsupportedLetters(UnsupportedLetterHandling unsupportedLetterHandling) {
+			return this.unsupportedLetters[unsupportedLetterHandling.ordinal()];
+		}
+		
+		/**
+		 * Returns the count of the recorded latencies.
+		 * 
+		 * @return count of the latencies
+		 */
+		public long latencyCount() {
+			long count = 0;
+			for (long c : this.latencyCounts) {
+				count += c;
+			}
+			return count;
+		}
+		
+		/**
+		 * Returns the latency at the percentile.
+		 * 
+		 * The value is the highest value of the bucket, so it is 1/16 higher than the actual value at most.
+		 * 
+		 * @param percentile percentile (0 to 100)
+		 * @return latency (nanoseconds), 0 if no latency is recorded
+		 */
+		public long latencyPercentile(double percentile) {
+			if (!(0 <= percentile && percentile <= 100)) {
+				throw new IllegalArgumentException("Percentile is out of range. percentile: " + percentile);
+			}
+			
+			long count = latencyCount();
+			if (count == 0) {
+				return 0;
+			}
+			
+			long rank = Math.max(1, (long)Math.ceil(count * percentile / 100));
+			long cumulative = 0;
+			for (int i = 0; i < this.latencyCounts.length; i++) {
+				cumulative += this.latencyCounts[i];
+				if (rank <= cumulative) {
+					return LatencyHistogram.upperBoundOf(i);
+				}
+			}
+			return LatencyHistogram.upperBoundOf(this.latencyCounts.length - 1);
+		}
+		
+		/**
+		 * Returns the latency counts of the buckets.
+		 * 
+		 * @return latency counts [bucket index]
+		 * @see #latencyLowerBound(int)
+		 */
+		public long[] latencyCounts() {
+			return this.latencyCounts.clone();
+		}
+		
+		/**
+		 * Returns the lowest latency of the bucket.
+		 * 
+		 * @param index bucket index
+		 * @return lowest latency (nanoseconds)
+		 */
+		public static long latencyLowerBound(int index) {
+			if (index < 0 || LatencyHistogram.BUCKET_COUNT <= index) {
+				throw new IllegalArgumentException("Index is out of range. index: " + index);
+			}
+			
+			return LatencyHistogram.lowerBoundOf(index);
+		}
+		
+		@Override
+		public String toString() {
+			return this.model + "; messages=" + this.messages + ", letters=" + this.letters
+					+ ", p50=" + latencyPercentile(50) + "ns, p99=" + latencyPercentile(99) + "ns";
+		}
+	}
+}
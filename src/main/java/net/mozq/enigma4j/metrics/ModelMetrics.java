@@ -0,0 +1,102 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+/**
+ * Metrics of a model.
+ * 
+ * All the counters are striped ({@link LongAdder}), so the updates from many threads don't contend.
+ */
+public final class ModelMetrics {
+	
+	/** Model name */
+	private final String model;
+	
+	/** Count of the translated messages */
+	private final LongAdder messages = new LongAdder();
+	
+	/** Count of the enciphered letters */
+	private final LongAdder letters = new LongAdder();
+	
+	/** Count of the unsupported letters [unsupported letter handling] */
+	private final LongAdder[] unsupportedLetters;
+	
+	/** Latency histogram (nanoseconds) */
+	private final LatencyHistogram latency = new LatencyHistogram();
+	
+	/**
+	 * Constructs with the model name.
+	 * 
+	 * @param model model name
+	 */
+	ModelMetrics(String model) {
+		this.model = model;
+		this.unsupportedLetters = new LongAdder[UnsupportedLetterHandling.values().length];
+		for (int i = 0; i < this.unsupportedLetters.length; i++) {
+			this.unsupportedLetters[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Returns the model name.
+	 * 
+	 * @return model name
+	 */
+	public String model() {
+		return this.model;
+	}
+	
+	/**
+	 * Records a translation of a message.
+	 * 
+	 * @param letters count of the enciphered letters
+	 * @param unsupportedLetters count of the unsupported letters
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @param latencyNanos latency (nanoseconds)
+	 */
+	public void record(long letters, long unsupportedLetters, UnsupportedLetterHandling unsupportedLetterHandling, long latencyNanos) {
+		this.messages.increment();
+		this.letters.add(letters);
+		if (unsupportedLetters != 0) {
+			this.unsupportedLetters[unsupportedLetterHandling.ordinal()].add(unsupportedLetters);
+		}
+		this.latency.record(latencyNanos);
+	}
+	
+	/**
+	 * Returns the snapshot of the counts, and resets the counts if specified.
+	 * 
+	 * @param reset true to reset the counts
+	 * @return snapshot
+	 */
+	MetricsSnapshot.Model snapshot(boolean reset) {
+		long[] unsupportedLetters = new long[this.unsupportedLetters.length];
+		for (int i = 0; i < unsupportedLetters.length; i++) {
+			unsupportedLetters[i] = reset ? this.unsupportedLetters[i].sumThenReset() : this.unsupportedLetters[i].sum();
+		}
+		
+		return new MetricsSnapshot.Model(this.model,
+				reset ? this.messages.sumThenReset() : this.messages.sum(),
+				reset ? this.letters.sumThenReset() : this.letters.sum(),
+				unsupportedLetters,
+				this.latency.counts(reset));
+	}
+}
@@ -0,0 +1,208 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+/**
+ * Aggregating scramble tracker.
+ * 
+ * This keeps only the counts of the contacts used by each scrambler (by name), in the forward and the backward directions.
+ * The contact is the letter on the alphabet ring (0-based) at which the current enters,
+ * that is the number offset by the current (window) position of the scrambler.
+ * The ring setting is applied inside the scrambler and is not subtracted,
+ * so the contact of the inner wiring is this contact minus (ring setting - 1).
+ * The rotation of the wheels is taken into account (e.g. the contact-usage histogram of a rotor,
+ * the distribution of the reflector contacts).
+ * The reflector is counted in the forward direction only.
+ * 
+ * The counters are primitive and thread-safe, and no object is allocated per event
+ * (except for the first event of each scrambler name).
+ */
+public final class AggregatingScrambleTracker implements ScrambleTracker {
+	
+	/** Counters by scrambler name */
+	private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+	
+	/**
+	 * Constructs the empty tracker.
+	 */
+	public AggregatingScrambleTracker() {
+		// NOP
+	}
+	
+	@Override
+	public void track(EnigmaMachine machine, Scrambler scrambler, int position, int numFwFrom, int numFwTo, int numBwFrom, int numBwTo) {
+		Counters counters = this.counters.get(scrambler.name());
+		if (counters == null) {
+			counters = this.counters.computeIfAbsent(scrambler.name(), name -> new Counters(scrambler.size()));
+		}
+		
+		int size = counters.size;
+		if (numBwFrom == 0 && numBwTo == 0 || scrambler instanceof Reflector) {
+			counters.forward.incrementAndGet(contact(numFwFrom, position, size));
+		} else {
+			counters.backward.incrementAndGet(contact(numBwFrom, position, size));
+		}
+	}
+	
+	/**
+	 * Returns the contact on the alphabet ring, without the ring setting.
+	 * 
+	 * @param number number (1-based)
+	 * @param position current (window) position of the scrambler (1-based), not the ring setting
+	 * @param size count of letters
+	 * @return contact on the alphabet ring (0-based)
+	 */
+	private static int contact(int number, int position, int size) {
+		return Math.floorMod(number + position - 2, size);
+	}
+	
+	/**
+	 * Returns the snapshot of the counts.
+	 * 
+	 * @return snapshot
+	 */
+	public Snapshot snapshot() {
+		return snapshot(false);
+	}
+	
+	/**
+	 * Returns the snapshot of the counts, and resets the counts.
+	 * 
+	 * Each count is taken and reset atomically, so a concurrent event is counted either in this snapshot or in the next.
+	 * 
+	 * @return snapshot
+	 */
+	public Snapshot snapshotAndReset() {
+		return snapshot(true);
+	}
+	
+	private Snapshot snapshot(boolean reset) {
+		Map<String, long[][]> counts = new LinkedHashMap<>();
+		for (Map.Entry<String, Counters> entry : this.counters.entrySet()) {
+			Counters counters = entry.getValue();
+			long[] forward = new long[counters.size];
+			long[] backward = new long[counters.size];
+			for (int i = 0; i < counters.size; i++) {
+				forward[i] = reset ? counters.forward.getAndSet(i, 0) : counters.forward.get(i);
+				backward[i] = reset ? counters.backward.getAndSet(i, 0) : counters.backward.get(i);
+			}
+			counts.put(entry.getKey(), new long[][] { forward, backward });
+		}
+		return new Snapshot(counts);
+	}
+	
+	/**
+	 * Counters of a scrambler.
+	 */
+	private static final class Counters {
+		
+		/** Count of letters */
+		private final int size;
+		
+		/** Forward counts [contact] */
+		private final AtomicLongArray forward;
+		
+		/** Backward counts [contact] */
+		private final AtomicLongArray backward;
+		
+		/**
+		 * Constructs with the count of letters.
+		 * 
+		 * @param size count of letters
+		 */
+		Counters(int size) {
+			this.size = size;
+			this.forward = new AtomicLongArray(size);
+			this.backward = new AtomicLongArray(size);
+		}
+	}
+	
+	/**
+	 * Snapshot of the counts.
+	 */
+	public static final class Snapshot {
+		
+		/** Counts by scrambler name ([0]: forward, [1]: backward) */
+		private final Map<String, long[][]> counts;
+		
+		/**
+		 * Constructs with the counts.
+		 * 
+		 * @param counts counts by scrambler name
+		 */
+		Snapshot(Map<String, long[][]> counts) {
+			this.counts = counts;
+		}
+		
+		/**
+		 * Returns the names of the tracked scramblers.
+		 * 
+		 * @return scrambler names
+		 */
+		public Set<String> scramblerNames() {
+			return Collections.unmodifiableSet(this.counts.keySet());
+		}
+		
+		/**
+		 * Returns the forward counts of the scrambler.
+		 * 
+		 * @param scramblerName scrambler name
+		 * @return forward counts [contact], empty if not tracked
+		 */
+		public long[] forwardCounts(String scramblerName) {
+			long[][] counts = this.counts.get(scramblerName);
+			return (counts == null) ? new long[0] : counts[0].clone();
+		}
+		
+		/**
+		 * Returns the backward counts of the scrambler.
+		 * 
+		 * @param scramblerName scrambler name
+		 * @return backward counts [contact], empty if not tracked
+		 */
+		public long[] backwardCounts(String scramblerName) {
+			long[][] counts = this.counts.get(scramblerName);
+			return (counts == null) ? new long[0] : counts[1].clone();
+		}
+		
+		/**
+		 * Returns the total count of the events of the scrambler.
+		 * 
+		 * @param scramblerName scrambler name
+		 * @return total count
+		 */
+		public long totalCount(String scramblerName) {
+			long total = 0;
+			for (long count : forwardCounts(scramblerName)) {
+				total += count;
+			}
+			for (long count : backwardCounts(scramblerName)) {
+				total += count;
+			}
+			return total;
+		}
+	}
+}
@@ -0,0 +1,330 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+/**
+ * Asynchronous scramble tracker.
+ * 
+ * The events are recorded into a preallocated ring buffer in the translation, and forwarded to the trackers
+ * in batches by the background consumer thread, so the trackers (e.g. logging or aggregating) do not stall the translation.
+ * The position and the numbers of an event are packed into one long slot,
+ * and the machine and the scrambler are kept in the slots of the same index. No object is allocated per event.
+ * 
+ * The ring buffer has a single producer: the events must be tracked by one thread at a time
+ * (e.g. the machines translated by one thread). Use one tracker per translating thread otherwise.
+ * 
+ * <pre>
+ * try (AsyncScrambleTracker tracker = new AsyncScrambleTracker(65536, OverflowPolicy.DROP, auditTracker)) {
+ *     enigmaMachine.tracker(tracker);
+ *     enigmaMachine.translate(value);
+ * }
+ * </pre>
+ */
+public final class AsyncScrambleTracker implements ScrambleTracker, AutoCloseable {
+	
+	/** Default capacity */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	
+	/** Max count of the events forwarded in a batch */
+	private static final int BATCH_SIZE = 1024;
+	
+	/** Bits of a packed value */
+	private static final int BITS = 12;
+	
+	/** Mask of a packed value */
+	private static final long MASK = (1L << BITS) - 1;
+	
+	/** Wait time of the idle consumer and the blocked producer (nanoseconds) */
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	
+	/** Trackers */
+	private final ScrambleTracker[] trackers;
+	
+	/** Overflow policy */
+	private final OverflowPolicy overflowPolicy;
+	
+	/** Mask of the ring index */
+	private final int indexMask;
+	
+	/** Packed events (position and numbers) */
+	private final long[] events;
+	
+	/** Machines of the events */
+	private final EnigmaMachine[] machines;
+	
+	/** Scramblers of the events */
+	private final Scrambler[] scramblers;
+	
+	/** Count of the published events (written by the producer) */
+	private final AtomicLong head = new AtomicLong();
+	
+	/** Count of the consumed events (written by the consumer) */
+	private final AtomicLong tail = new AtomicLong();
+	
+	/** Count of the dropped events */
+	private final AtomicLong dropped = new AtomicLong();
+	
+	/** Count of the failures of the trackers */
+	private final AtomicLong failures = new AtomicLong();
+	
+	/** Consumer thread */
+	private final Thread consumer;
+	
+	/** Closed */
+	private volatile boolean closed;
+	
+	/**
+	 * Constructs with the trackers, the default capacity and the BLOCK policy.
+	 * 
+	 * @param trackers trackers to forward the events
+	 */
+	public AsyncScrambleTracker(ScrambleTracker... trackers) {
+		this(DEFAULT_CAPACITY, OverflowPolicy.BLOCK, trackers);
+	}
+	
+	/**
+	 * Constructs with the capacity, the overflow policy and the trackers, and starts the consumer thread.
+	 * 
+	 * @param capacity capacity of the ring buffer (count of the events, rounded up to a power of two)
+	 * @param overflowPolicy overflow policy
+	 * @param trackers trackers to forward the events
+	 */
+	public AsyncScrambleTracker(int capacity, OverflowPolicy overflowPolicy, ScrambleTracker... trackers) {
+		if (capacity <= 0 || (1 << 30) < capacity) {
+			throw new IllegalArgumentException("Capacity is out of range. capacity: " + capacity);
+		}
+		if (overflowPolicy == null) {
+			throw new IllegalArgumentException("Overflow policy cannot be null.");
+		}
+		for (ScrambleTracker tracker : trackers) {
+			if (tracker == null) {
+				throw new IllegalArgumentException("Tracker cannot be null.");
+			}
+		}
+		
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		
+		this.trackers = trackers.clone();
+		this.overflowPolicy = overflowPolicy;
+		this.indexMask = size - 1;
+		this.events = new long[size];
+		this.machines = new EnigmaMachine[size];
+		this.scramblers = new Scrambler[size];
+		this.closed = false;
+		
+		this.consumer = new Thread(this::consume, "enigma4j-async-tracker");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+	
+	/**
+	 * Returns the capacity of the ring buffer.
+	 * 
+	 * @return capacity
+	 */
+	public int capacity() {
+		return this.events.length;
+	}
+	
+	/**
+	 * Returns the overflow policy.
+	 * 
+	 * @return overflow policy
+	 */
+	public OverflowPolicy overflowPolicy() {
+		return this.overflowPolicy;
+	}
+	
+	/**
+	 * Returns the count of the events dropped by the DROP policy.
+	 * 
+	 * @return count of the dropped events
+	 */
+	public long droppedCount() {
+		return this.dropped.get();
+	}
+	
+	/**
+	 * Returns the count of the events forwarded to the trackers.
+	 * 
+	 * @return count of the forwarded events
+	 */
+	public long forwardedCount() {
+		return this.tail.get();
+	}
+	
+	/**
+	 * Returns the count of the exceptions thrown by the trackers.
+	 * The consumer continues with the next event.
+	 * 
+	 * @return count of the failures
+	 */
+	public long failureCount() {
+		return this.failures.get();
+	}
+	
+	@Override
+	public void track(EnigmaMachine machine, Scrambler scrambler, int position, int numFwFrom, int numFwTo, int numBwFrom, int numBwTo) {
+		if (this.closed) {
+			throw new IllegalStateException("Tracker is closed.");
+		}
+		
+		long head = this.head.get();
+		while (this.events.length <= head - this.tail.get()) {
+			// Full
+			if (this.overflowPolicy == OverflowPolicy.DROP) {
+				this.dropped.incrementAndGet();
+				return;
+			}
+			LockSupport.parkNanos(PARK_NANOS);
+			if (this.closed) {
+				throw new IllegalStateException("Tracker is closed.");
+			}
+		}
+		
+		int index = (int)head & this.indexMask;
+		this.events[index] = pack(position, numFwFrom, numFwTo, numBwFrom, numBwTo);
+		this.machines[index] = machine;
+		this.scramblers[index] = scrambler;
+		this.head.lazySet(head + 1);
+	}
+	
+	/**
+	 * Waits until all the tracked events are forwarded to the trackers.
+	 * 
+	 * @throws InterruptedException thrown when the current thread is interrupted
+	 */
+	public void flush() throws InterruptedException {
+		long head = this.head.get();
+		while (this.tail.get() < head && this.consumer.isAlive()) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+	
+	/**
+	 * Forwards the remaining events, and stops the consumer thread.
+	 * The events tracked after closing are rejected.
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		
+		this.closed = true;
+		boolean interrupted = false;
+		while (this.consumer.isAlive()) {
+			try {
+				this.consumer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Consumes the events until closed.
+	 */
+	private void consume() {
+		while (true) {
+			boolean closed = this.closed;
+			long tail = this.tail.get();
+			long head = this.head.get();
+			if (tail == head) {
+				if (closed) {
+					return;
+				}
+				LockSupport.parkNanos(PARK_NANOS);
+				continue;
+			}
+			
+			// Batch
+			long end = Math.min(head, tail + BATCH_SIZE);
+			for (long seq = tail; seq < end; seq++) {
+				int index = (int)seq & this.indexMask;
+				long event = this.events[index];
+				EnigmaMachine machine = this.machines[index];
+				Scrambler scrambler = this.scramblers[index];
+				this.machines[index] = null;
+				this.scramblers[index] = null;
+				
+				forward(machine, scrambler, event);
+			}
+			this.tail.lazySet(end);
+		}
+	}
+	
+	private void forward(EnigmaMachine machine, Scrambler scrambler, long event) {
+		int position = unpack(event, 0);
+		int numFwFrom = unpack(event, 1);
+		int numFwTo = unpack(event, 2);
+		int numBwFrom = unpack(event, 3);
+		int numBwTo = unpack(event, 4);
+		for (ScrambleTracker tracker : this.trackers) {
+			try {
+				tracker.track(machine, scrambler, position, numFwFrom, numFwTo, numBwFrom, numBwTo);
+			} catch (RuntimeException e) {
+				this.failures.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Packs the position and the numbers into a long.
+	 * Each value (-1 to 4094) is stored in 12 bits.
+	 * 
+	 * @param position position
+	 * @param numFwFrom number before forward scrambled
+	 * @param numFwTo number after forward scrambled
+	 * @param numBwFrom number before backward scrambled
+	 * @param numBwTo number after backward scrambled
+	 * @return packed event
+	 */
+	static long pack(int position, int numFwFrom, int numFwTo, int numBwFrom, int numBwTo) {
+		return ((position + 1) & MASK)
+				| (((numFwFrom + 1) & MASK) << BITS)
+				| (((numFwTo + 1) & MASK) << (BITS * 2))
+				| (((numBwFrom + 1) & MASK) << (BITS * 3))
+				| (((numBwTo + 1) & MASK) << (BITS * 4));
+	}
+	
+	/**
+	 * Unpacks a value of the packed event.
+	 * 
+	 * @param event packed event
+	 * @param field field index (0: position, 1 to 4: numbers)
+	 * @return value
+	 */
+	static int unpack(long event, int field) {
+		return (int)((event >>> (BITS * field)) & MASK) - 1;
+	}
+}
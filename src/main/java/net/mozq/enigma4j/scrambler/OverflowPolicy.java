@@ -0,0 +1,27 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+/**
+ * Overflow policy of {@link AsyncScrambleTracker}.
+ */
+public enum OverflowPolicy {
+	/** Drop the event, and count it as dropped. The translation is never stalled. */
+	DROP,
+	/** Wait until the consumer makes room. No event is lost. */
+	BLOCK,
+}
@@ -0,0 +1,106 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+/**
+ * Sampling scramble tracker.
+ * 
+ * This forwards the events of 1 in N key presses to the tracker, and drops the others.
+ * The first key press is sampled.
+ * A key press starts with the forward event after the backward events of the previous key press
+ * (or with the first event of another machine).
+ * 
+ * The events must be tracked by one thread at a time. No object is allocated per event.
+ */
+public final class SamplingScrambleTracker implements ScrambleTracker {
+	
+	/** Tracker */
+	private final ScrambleTracker tracker;
+	
+	/** Sampling interval (1 in N key presses) */
+	private final int interval;
+	
+	/** Machine of the last event */
+	private EnigmaMachine lastMachine;
+	
+	/** Whether the last event is a forward event */
+	private boolean lastForward;
+	
+	/** Count of the key presses */
+	private long keyPressCount;
+	
+	/** Whether the current key press is sampled */
+	private boolean sampled;
+	
+	/**
+	 * Constructs with the tracker and the sampling interval.
+	 * 
+	 * @param tracker tracker to forward the sampled events
+	 * @param interval sampling interval (1 in N key presses)
+	 */
+	public SamplingScrambleTracker(ScrambleTracker tracker, int interval) {
+		if (tracker == null) {
+			throw new IllegalArgumentException("Tracker cannot be null.");
+		}
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Interval is out of range. interval: " + interval);
+		}
+		
+		this.tracker = tracker;
+		this.interval = interval;
+		this.lastMachine = null;
+		this.lastForward = false;
+		this.keyPressCount = 0;
+		this.sampled = false;
+	}
+	
+	/**
+	 * Returns the sampling interval.
+	 * 
+	 * @return sampling interval (1 in N key presses)
+	 */
+	public int interval() {
+		return this.interval;
+	}
+	
+	/**
+	 * Returns the count of the key presses seen.
+	 * 
+	 * @return count of the key presses
+	 */
+	public long keyPressCount() {
+		return this.keyPressCount;
+	}
+	
+	@Override
+	public void track(EnigmaMachine machine, Scrambler scrambler, int position, int numFwFrom, int numFwTo, int numBwFrom, int numBwTo) {
+		boolean forward = (numBwFrom == 0 && numBwTo == 0);
+		if ((forward && !this.lastForward) || machine != this.lastMachine) {
+			// New key press
+			this.sampled = (this.keyPressCount % this.interval == 0);
+			this.keyPressCount++;
+		}
+		this.lastMachine = machine;
+		this.lastForward = forward;
+		
+		if (this.sampled) {
+			this.tracker.track(machine, scrambler, position, numFwFrom, numFwTo, numBwFrom, numBwTo);
+		}
+	}
+}
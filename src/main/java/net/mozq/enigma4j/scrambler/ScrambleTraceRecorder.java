@@ -0,0 +1,416 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+/**
+ * Scramble trace recorder.
+ * 
+ * This records the tracked events into columnar primitive arrays (scrambler index, position and four numbers),
+ * and replays the recorded events to any tracker without translating the letters again.
+ * 
+ * The events are stored in chunks of 65536 events.
+ * If the spill file is specified, the chunks beyond the spill threshold are stored in the memory-mapped file
+ * instead of the heap, so the traces of long messages don't fill the heap.
+ * The spill file is deleted on close.
+ * 
+ * This class is not thread-safe. No object is allocated per event (except for a new chunk).
+ */
+public final class ScrambleTraceRecorder implements ScrambleTracker, AutoCloseable {
+	
+	/** Count of the events of a chunk (shift) */
+	private static final int CHUNK_SHIFT = 16;
+	
+	/** Count of the events of a chunk */
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	
+	/** Column of the scrambler index */
+	private static final int SCRAMBLER = 0;
+	
+	/** Column of the position */
+	private static final int POSITION = 1;
+	
+	/** Column of the forward from number */
+	private static final int FW_FROM = 2;
+	
+	/** Column of the forward to number */
+	private static final int FW_TO = 3;
+	
+	/** Column of the backward from number */
+	private static final int BW_FROM = 4;
+	
+	/** Column of the backward to number */
+	private static final int BW_TO = 5;
+	
+	/** Count of the columns */
+	private static final int COLUMNS = 6;
+	
+	/** Bytes of a chunk in the spill file */
+	private static final long CHUNK_BYTES = (long)COLUMNS * CHUNK_SIZE * Short.BYTES;
+	
+	/** Spill file channel, null if not spilled */
+	private final FileChannel spillChannel;
+	
+	/** Count of the chunks on the heap */
+	private final int heapChunkCount;
+	
+	/** Chunks [chunk][column] */
+	private final List<ShortBuffer[]> chunks = new ArrayList<>();
+	
+	/** Machines [scrambler index] */
+	private EnigmaMachine[] machines = new EnigmaMachine[8];
+	
+	/** Scramblers [scrambler index] */
+	private Scrambler[] scramblers = new Scrambler[8];
+	
+	/** Count of the scramblers */
+	private int scramblerCount;
+	
+	/** Count of the events */
+	private long eventCount;
+	
+	/** Closed */
+	private boolean closed;
+	
+	/**
+	 * Constructs the recorder on the heap.
+	 */
+	public ScrambleTraceRecorder() {
+		this.spillChannel = null;
+		this.heapChunkCount = Integer.MAX_VALUE;
+		this.scramblerCount = 0;
+		this.eventCount = 0;
+		this.closed = false;
+	}
+	
+	/**
+	 * Constructs the recorder with the spill file.
+	 * 
+	 * The events beyond the spill threshold (rounded up to 65536 events) are stored in the spill file.
+	 * 
+	 * @param spillFile spill file (created or truncated, and deleted on close)
+	 * @param spillThreshold count of the events on the heap
+	 * @throws IOException thrown when the spill file cannot be opened
+	 */
+	public ScrambleTraceRecorder(Path spillFile, long spillThreshold) throws IOException {
+		if (spillFile == null) {
+			throw new IllegalArgumentException("Spill file cannot be null.");
+		}
+		if (spillThreshold < 0) {
+			throw new IllegalArgumentException("Spill threshold is out of range. spillThreshold: " + spillThreshold);
+		}
+		
+		this.spillChannel = FileChannel.open(spillFile,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+		this.heapChunkCount = (int)Math.min(Integer.MAX_VALUE, (spillThreshold + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+		this.scramblerCount = 0;
+		this.eventCount = 0;
+		this.closed = false;
+	}
+	
+	/**
+	 * Returns the count of the recorded events.
+	 * 
+	 * @return count of the events
+	 */
+	public long eventCount() {
+		return this.eventCount;
+	}
+	
+	/**
+	 * Returns whether the events are spilled to the spill file.
+	 * 
+	 * @return true if spilled
+	 */
+	public boolean isSpilled() {
+		return this.heapChunkCount < this.chunks.size();
+	}
+	
+	/**
+	 * Returns the count of the recorded scramblers.
+	 * 
+	 * The scramblers are indexed per machine in the order of the first event.
+	 * 
+	 * @return count of the scramblers
+	 */
+	public int scramblerCount() {
+		return this.scramblerCount;
+	}
+	
+	/**
+	 * Returns the scrambler of the scrambler index.
+	 * 
+	 * @param scramblerIndex scrambler index
+	 * @return scrambler
+	 */
+	public Scrambler scramblerOf(int scramblerIndex) {
+		if (scramblerIndex < 0 || this.scramblerCount <= scramblerIndex) {
+			throw new IllegalArgumentException("Scrambler index is out of range. scramblerIndex: " + scramblerIndex);
+		}
+		
+		return this.scramblers[scramblerIndex];
+	}
+	
+	/**
+	 * Returns the machine of the scrambler index.
+	 * 
+	 * @param scramblerIndex scrambler index
+	 * @return Enigma machine
+	 */
+	public EnigmaMachine machineOf(int scramblerIndex) {
+		if (scramblerIndex < 0 || this.scramblerCount <= scramblerIndex) {
+			throw new IllegalArgumentException("Scrambler index is out of range. scramblerIndex: " + scramblerIndex);
+		}
+		
+		return this.machines[scramblerIndex];
+	}
+	
+	/**
+	 * Returns the scrambler index of the event.
+	 * 
+	 * @param event event index
+	 * @return scrambler index
+	 */
+	public int scramblerIndexAt(long event) {
+		return get(event, SCRAMBLER);
+	}
+	
+	/**
+	 * Returns the position of the event.
+	 * 
+	 * @param event event index
+	 * @return position
+	 */
+	public int positionAt(long event) {
+		return get(event, POSITION);
+	}
+	
+	/**
+	 * Returns the forward from number of the event.
+	 * 
+	 * @param event event index
+	 * @return forward from number
+	 */
+	public int numFwFromAt(long event) {
+		return get(event, FW_FROM);
+	}
+	
+	/**
+	 * Returns the forward to number of the event.
+	 * 
+	 * @param event event index
+	 * @return forward to number
+	 */
+	public int numFwToAt(long event) {
+		return get(event, FW_TO);
+	}
+	
+	/**
+	 * Returns the backward from number of the event.
+	 * 
+	 * @param event event index
+	 * @return backward from number
+	 */
+	public int numBwFromAt(long event) {
+		return get(event, BW_FROM);
+	}
+	
+	/**
+	 * Returns the backward to number of the event.
+	 * 
+	 * @param event event index
+	 * @return backward to number
+	 */
+	public int numBwToAt(long event) {
+		return get(event, BW_TO);
+	}
+	
+	private int get(long event, int column) {
+		if (event < 0 || this.eventCount <= event) {
+			throw new IllegalArgumentException("Event is out of range. event: " + event);
+		}
+		
+		ShortBuffer[] chunk = this.chunks.get((int)(event >>> CHUNK_SHIFT));
+		return chunk[column].get((int)event & (CHUNK_SIZE - 1));
+	}
+	
+	@Override
+	public void track(EnigmaMachine machine, Scrambler scrambler, int position, int numFwFrom, int numFwTo, int numBwFrom, int numBwTo) {
+		if (this.closed) {
+			throw new IllegalStateException("Recorder is closed.");
+		}
+		
+		int scramblerIndex = indexOf(machine, scrambler);
+		
+		int offset = (int)this.eventCount & (CHUNK_SIZE - 1);
+		int chunkIndex = (int)(this.eventCount >>> CHUNK_SHIFT);
+		if (this.chunks.size() <= chunkIndex) {
+			this.chunks.add(newChunk(chunkIndex));
+		}
+		
+		ShortBuffer[] chunk = this.chunks.get(chunkIndex);
+		chunk[SCRAMBLER].put(offset, (short)scramblerIndex);
+		chunk[POSITION].put(offset, (short)position);
+		chunk[FW_FROM].put(offset, (short)numFwFrom);
+		chunk[FW_TO].put(offset, (short)numFwTo);
+		chunk[BW_FROM].put(offset, (short)numBwFrom);
+		chunk[BW_TO].put(offset, (short)numBwTo);
+		this.eventCount++;
+	}
+	
+	/**
+	 * Returns the scrambler index, adding the scrambler on the first event.
+	 * 
+	 * @param machine Enigma machine
+	 * @param scrambler scrambler
+	 * @return scrambler index
+	 */
+	private int indexOf(EnigmaMachine machine, Scrambler scrambler) {
+		for (int i = 0; i < this.scramblerCount; i++) {
+			if (this.scramblers[i] == scrambler && this.machines[i] == machine) {
+				return i;
+			}
+		}
+		
+		if (Short.MAX_VALUE < this.scramblerCount + 1) {
+			throw new IllegalStateException("Too many scramblers. scramblerCount: " + this.scramblerCount);
+		}
+		if (this.scramblers.length == this.scramblerCount) {
+			this.scramblers = Arrays.copyOf(this.scramblers, this.scramblerCount * 2);
+			this.machines = Arrays.copyOf(this.machines, this.scramblerCount * 2);
+		}
+		this.scramblers[this.scramblerCount] = scrambler;
+		this.machines[this.scramblerCount] = machine;
+		return this.scramblerCount++;
+	}
+	
+	/**
+	 * Creates the chunk on the heap or in the spill file.
+	 * 
+	 * @param chunkIndex chunk index
+	 * @return chunk [column]
+	 */
+	private ShortBuffer[] newChunk(int chunkIndex) {
+		ShortBuffer[] chunk = new ShortBuffer[COLUMNS];
+		if (this.spillChannel == null || chunkIndex < this.heapChunkCount) {
+			for (int column = 0; column < COLUMNS; column++) {
+				chunk[column] = ShortBuffer.allocate(CHUNK_SIZE);
+			}
+			return chunk;
+		}
+		
+		long position = (chunkIndex - this.heapChunkCount) * CHUNK_BYTES;
+		MappedByteBuffer mapped;
+		try {
+			mapped = this.spillChannel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK_BYTES);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		mapped.order(ByteOrder.nativeOrder());
+		
+		ShortBuffer columns = mapped.asShortBuffer();
+		for (int column = 0; column < COLUMNS; column++) {
+			columns.limit((column + 1) * CHUNK_SIZE);
+			columns.position(column * CHUNK_SIZE);
+			chunk[column] = columns.slice();
+		}
+		return chunk;
+	}
+	
+	/**
+	 * Replays all the recorded events to the tracker.
+	 * 
+	 * @param tracker tracker
+	 */
+	public void replay(ScrambleTracker tracker) {
+		replay(tracker, 0, this.eventCount);
+	}
+	
+	/**
+	 * Replays the recorded events in the range to the tracker.
+	 * 
+	 * @param tracker tracker
+	 * @param from first event index (inclusive)
+	 * @param to last event index (exclusive)
+	 */
+	public void replay(ScrambleTracker tracker, long from, long to) {
+		if (tracker == null) {
+			throw new IllegalArgumentException("Tracker cannot be null.");
+		}
+		if (from < 0 || to < from || this.eventCount < to) {
+			throw new IllegalArgumentException("Range is out of range. from: " + from + ", to: " + to);
+		}
+		
+		long event = from;
+		while (event < to) {
+			ShortBuffer[] chunk = this.chunks.get((int)(event >>> CHUNK_SHIFT));
+			int offset = (int)event & (CHUNK_SIZE - 1);
+			int end = (int)Math.min(CHUNK_SIZE, offset + (to - event));
+			for (int i = offset; i < end; i++) {
+				int scramblerIndex = chunk[SCRAMBLER].get(i);
+				tracker.track(this.machines[scramblerIndex], this.scramblers[scramblerIndex], chunk[POSITION].get(i),
+						chunk[FW_FROM].get(i), chunk[FW_TO].get(i), chunk[BW_FROM].get(i), chunk[BW_TO].get(i));
+			}
+			event += end - offset;
+		}
+	}
+	
+	/**
+	 * Clears the recorded events.
+	 * 
+	 * The chunks are kept and reused.
+	 */
+	public void clear() {
+		Arrays.fill(this.machines, null);
+		Arrays.fill(this.scramblers, null);
+		this.scramblerCount = 0;
+		this.eventCount = 0;
+	}
+	
+	/**
+	 * Closes the recorder and deletes the spill file.
+	 * 
+	 * @throws IOException thrown when the spill file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		
+		this.closed = true;
+		this.chunks.clear();
+		clear();
+		if (this.spillChannel != null) {
+			this.spillChannel.close();
+		}
+	}
+}
@@ -18,6 +18,8 @@ package net.mozq.enigma4j.scrambler;
 
 import java.util.Objects;
 
+import net.mozq.enigma4j.machine.Alphabet;
+
 /**
  * Scrambler.
  */
@@ -29,6 +31,9 @@ public abstract class Scrambler {
 	/** Letters */
 	private String letters;
 	
+	/** Alphabet */
+	private Alphabet alphabet;
+	
 	/** Wiring */
 	private String wiring;
 	
@@ -38,12 +43,18 @@ public abstract class Scrambler {
 	/** Turnable */
 	private boolean turnable;
 	
+	/** Turnover positions [letter number - 1] */
+	private boolean[] turnoverPositions;
+	
 	/** Forward mapping */
 	private int[] forwardMapping;
 	
 	/** Backward mapping */
 	private int[] backwardMapping;
 	
+	/** Wraparound table, the letter number of (index - size) [number + offset + size] */
+	private int[] wraparound;
+	
 	/**
 	 * Constracts the same settings as the specified scrambler.
 	 * 
@@ -52,12 +63,15 @@ public abstract class Scrambler {
 	protected Scrambler(Scrambler scrambler) {
 		this.name = scrambler.name;
 		this.letters = scrambler.letters;
+		this.alphabet = scrambler.alphabet;
 		this.wiring = scrambler.wiring;
 		this.turnovers = scrambler.turnovers;
 		this.turnable = scrambler.turnable;
+		this.turnoverPositions = scrambler.turnoverPositions;
 		
 		this.forwardMapping = scrambler.forwardMapping;
 		this.backwardMapping = scrambler.backwardMapping;
+		this.wraparound = scrambler.wraparound;
 	}
 	
 	/**
@@ -83,12 +97,18 @@ public abstract class Scrambler {
 		
 		this.name = name;
 		this.letters = letters;
+		this.alphabet = Alphabet.of(letters);
 		this.wiring = wiring;
 		
 		this.turnovers = (turnovers == null) ? "" : turnovers;
 		this.turnable = (turnovers != null);
 		
 		int len = letters.length();
+		this.turnoverPositions = new boolean[len];
+		for (int i = 0; i < len; i++) {
+			this.turnoverPositions[i] = (this.turnovers.indexOf(this.alphabet.letterOf(i)) != -1);
+		}
+		
 		this.forwardMapping = new int[len];
 		this.backwardMapping = new int[len];
 		for (int wi = 0; wi < len; wi++) {
@@ -110,6 +130,11 @@ public abstract class Scrambler {
 			this.forwardMapping[wi] = li;
 			this.backwardMapping[li] = wi;
 		}
+		
+		this.wraparound = new int[len * 3];
+		for (int i = 0; i < this.wraparound.length; i++) {
+			this.wraparound[i] = normalizeOneToBase(i - len, 0, len);
+		}
 	}
 	
 	/**
@@ -130,6 +155,15 @@ public abstract class Scrambler {
 		return this.letters;
 	}
 	
+	/**
+	 * Returns the alphabet.
+	 * 
+	 * @return alphabet
+	 */
+	public Alphabet alphabet() {
+		return this.alphabet;
+	}
+	
 	/**
 	 * Returns the wiring.
 	 * 
@@ -191,7 +225,7 @@ public abstract class Scrambler {
 	 * @return letter number
 	 */
 	public int letterNumberOf(char letter, int defaultValue) {
-		int idx = this.letters.indexOf(letter);
+		int idx = this.alphabet.numberOf(letter);
 		if (idx == -1) {
 			return defaultValue;
 		}
@@ -211,7 +245,7 @@ public abstract class Scrambler {
 			throw new IllegalArgumentException("Letter number is out of range. letterNumber: " + letterNumber);
 		}
 		
-		return this.letters.charAt(letterNumber - 1);
+		return this.alphabet.letterOf(letterNumber - 1);
 	}
 	
 	/**
@@ -232,7 +266,11 @@ public abstract class Scrambler {
 	 * @return true if the letter number is the turnover position
 	 */
 	public boolean isTurnoverPosition(int letterNumber) {
-		return isTurnoverPosition(letterOf(letterNumber));
+		if (letterNumber <= 0 || this.turnoverPositions.length < letterNumber) {
+			throw new IllegalArgumentException("Letter number is out of range. letterNumber: " + letterNumber);
+		}
+		
+		return this.turnoverPositions[letterNumber - 1];
 	}
 	
 	/**
@@ -257,9 +295,9 @@ public abstract class Scrambler {
 			return -1;
 		}
 		
-		number = normalizeOneToBase(number, wiringOffset, size());
+		number = wrap(number, wiringOffset);
 		int scrambled = this.forwardMapping[number - 1] + 1;
-		scrambled = normalizeOneToBase(scrambled, -wiringOffset, size());
+		scrambled = wrap(scrambled, -wiringOffset);
 		
 		return scrambled;
 	}
@@ -286,13 +324,32 @@ public abstract class Scrambler {
 			return -1;
 		}
 		
-		number = normalizeOneToBase(number, wiringOffset, size());
+		number = wrap(number, wiringOffset);
 		int scrambled = this.backwardMapping[number - 1] + 1;
-		scrambled = normalizeOneToBase(scrambled, -wiringOffset, size());
+		scrambled = wrap(scrambled, -wiringOffset);
 		
 		return scrambled;
 	}
 	
+	/**
+	 * Returns the letter number shifted by the offset, wrapped around the letters.
+	 * 
+	 * The offsets within the count of letters (the positions and the ring settings) are looked up
+	 * from the wraparound table without the modulo.
+	 * 
+	 * @param letterNumber letter number
+	 * @param offset offset
+	 * @return shifted letter number
+	 */
+	final int wrap(int letterNumber, int offset) {
+		int index = letterNumber + offset + this.letters.length();
+		if (0 <= index && index < this.wraparound.length) {
+			return this.wraparound[index];
+		}
+		
+		return normalizeOneToBase(letterNumber, offset, size());
+	}
+	
 	private static int normalizeOneToBase(int n, int offset, int base) {
 		n = (n + offset) % base;
 		
@@ -152,7 +152,7 @@ public class ScramblerChain {
 			
 			if (turn) {
 				// Turn
-				this.position = normalizeOneToBase(this.position, 1, this.scrambler.size());
+				this.position = this.scrambler.wrap(this.position, 1);
 			}
 		} else {
 			// Skip non turnable slot
@@ -177,9 +177,9 @@ public class ScramblerChain {
 		
 		// Forward
 		int numFwFrom = number;
-		int numFwTo = normalizeOneToBase(numFwFrom, offset, this.scrambler.size());
+		int numFwTo = wrap(numFwFrom, offset);
 		numFwTo = this.scrambler.scrambleForward(numFwTo);
-		numFwTo = normalizeOneToBase(numFwTo, -offset, this.scrambler.size());
+		numFwTo = wrap(numFwTo, -offset);
 		
 		int scrambled;
 		if (this.next == null) {
@@ -200,9 +200,9 @@ public class ScramblerChain {
 			int numBwFrom = this.next.scramble(numFwTo);
 			
 			// Backward
-			int numBwTo = normalizeOneToBase(numBwFrom, offset, this.scrambler.size());
+			int numBwTo = wrap(numBwFrom, offset);
 			numBwTo = this.scrambler.scrambleBackward(numBwTo);
-			numBwTo = normalizeOneToBase(numBwTo, -offset, this.scrambler.size());
+			numBwTo = wrap(numBwTo, -offset);
 			
 			if (this.tracker != null) {
 				this.tracker.track(this.machine, this.scrambler, this.position, numFwFrom, numFwTo, numBwFrom, numBwTo);
@@ -214,18 +214,12 @@ public class ScramblerChain {
 		return scrambled;
 	}
 	
-	private static int normalizeOneToBase(int n, int offset, int base) {
+	private int wrap(int n, int offset) {
 		if (n == -1) {
 			return -1;
 		}
 		
-		n = (n + offset) % base;
-		
-		if (n <= 0) {
-			n += base;
-		}
-		
-		return n;
+		return this.scrambler.wrap(n, offset);
 	}
 	
 	/**
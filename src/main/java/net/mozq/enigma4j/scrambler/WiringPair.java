@@ -19,6 +19,9 @@ package net.mozq.enigma4j.scrambler;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.mozq.enigma4j.jfr.EnigmaEvents;
+import net.mozq.enigma4j.jfr.UhrWiringEvent;
+
 /**
  * Wiring pair.
  */
@@ -228,6 +231,11 @@ public class WiringPair {
 			throw new IllegalArgumentException();
 		}
 		
+		UhrWiringEvent event = EnigmaEvents.isRecorderInitialized() ? new UhrWiringEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+		
 		char[] wiring = letters.toCharArray();
 		
 		
@@ -271,6 +279,11 @@ public class WiringPair {
 			wiring[idxB] = letter2A;
 		}
 		
+		if (event != null && event.shouldCommit()) {
+			event.letters = letters.length();
+			event.uhrSetting = uhrSetting;
+			event.commit();
+		}
 		return String.valueOf(wiring);
 	}
 	
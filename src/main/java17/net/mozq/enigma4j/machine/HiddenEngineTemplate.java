@@ -0,0 +1,138 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the engines defined as hidden classes.
+ * 
+ * This class is never loaded by itself. {@link HiddenEngines} defines a hidden class from the bytes of this class
+ * for each compiled machine, and the static final fields are initialized from the class data of the hidden class.
+ * The JIT compiler treats the static final fields as constants, so the loops over the wheels are unrolled
+ * and the tests of the wheel layout and the turnover mechanism are folded away.
+ */
+final class HiddenEngineTemplate extends Engine {
+	
+	/** Class data */
+	private static final Object[] DATA = classData();
+	
+	/** Count of letters */
+	private static final int SIZE = (Integer)DATA[HiddenEngines.DATA_SIZE];
+	
+	/** Count of wheels */
+	private static final int WHEEL_COUNT = (Integer)DATA[HiddenEngines.DATA_WHEEL_COUNT];
+	
+	/** Turnable wheels (bit mask) */
+	private static final int TURNABLE = (Integer)DATA[HiddenEngines.DATA_TURNABLE];
+	
+	/** Wheels whose turnover engages the next wheel (bit mask) */
+	private static final int ENGAGEABLE = (Integer)DATA[HiddenEngines.DATA_ENGAGEABLE];
+	
+	/** Whether the turnover mechanism is cog-wheel driven */
+	private static final boolean COG_WHEEL = (Boolean)DATA[HiddenEngines.DATA_COG_WHEEL];
+	
+	/** Entry forward table */
+	private static final int[] ENTRY_FORWARD = (int[])DATA[HiddenEngines.DATA_ENTRY_FORWARD];
+	
+	/** Entry backward table */
+	private static final int[] ENTRY_BACKWARD = (int[])DATA[HiddenEngines.DATA_ENTRY_BACKWARD];
+	
+	/** Wheel forward tables [(wheel * size + position) * size + number] */
+	private static final int[] FORWARD = (int[])DATA[HiddenEngines.DATA_FORWARD];
+	
+	/** Wheel backward tables [(wheel * size + position) * size + number] */
+	private static final int[] BACKWARD = (int[])DATA[HiddenEngines.DATA_BACKWARD];
+	
+	/** Wheel turnover positions [wheel * size + position] */
+	private static final boolean[] TURNOVER = (boolean[])DATA[HiddenEngines.DATA_TURNOVER];
+	
+	/**
+	 * Returns the class data of the hidden class.
+	 * 
+	 * @return class data
+	 */
+	private static Object[] classData() {
+		try {
+			return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, Object[].class);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Turns the wheels by one key press.
+	 * 
+	 * This is the same stepping as the generic engine, with the wheel layout as the constants.
+	 * 
+	 * @param positions wheel positions (0-based)
+	 */
+	@Override
+	void turn(int[] positions) {
+		boolean force = true;
+		for (int i = 0; i < WHEEL_COUNT; i++) {
+			if ((TURNABLE & (1 << i)) == 0) {
+				// Skip non turnable slot
+				continue;
+			}
+			
+			boolean turn = force;
+			boolean turnover = TURNOVER[i * SIZE + positions[i]];
+			if (COG_WHEEL) {
+				// The cog-wheel driven wheel turnover mechanism
+				
+				if (turnover) {
+					turn = true;
+				}
+				force = turnover;
+			} else {
+				// The regular wheel turnover mechanism (with double stepping)
+				
+				if (turnover && (ENGAGEABLE & (1 << i)) != 0) {
+					turn = true;
+					force = true;
+				} else {
+					force = false;
+				}
+			}
+			
+			if (turn) {
+				positions[i] = (positions[i] + 1 == SIZE) ? 0 : positions[i] + 1;
+			}
+			
+			if (COG_WHEEL && !force) {
+				break;
+			}
+		}
+	}
+	
+	@Override
+	int scramble(int[] positions, int number) {
+		int last = WHEEL_COUNT - 1;
+		
+		number = ENTRY_FORWARD[number];
+		for (int i = 0; i < last; i++) {
+			number = FORWARD[(i * SIZE + positions[i]) * SIZE + number];
+		}
+		number = FORWARD[(last * SIZE + positions[last]) * SIZE + number];
+		for (int i = last - 1; 0 <= i; i--) {
+			number = BACKWARD[(i * SIZE + positions[i]) * SIZE + number];
+		}
+		return ENTRY_BACKWARD[number];
+	}
+}
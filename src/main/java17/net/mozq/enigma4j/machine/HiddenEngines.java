@@ -0,0 +1,164 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Engines defined as hidden classes.
+ * 
+ * This is the class for Java 17.
+ * The engine of each compiled machine is a hidden class defined from the bytes of {@link HiddenEngineTemplate},
+ * with the tables and the wheel layout of the compiled machine as the class data.
+ * The template reads the class data into its static final fields, which the JIT compiler treats as constants,
+ * so the loops over the wheels become straight-line code for the exact wheel layout and turnover mechanism.
+ * 
+ * The hidden class is not kept by the class loader, so it is unloaded with its compiled machine.
+ */
+final class HiddenEngines {
+	
+	/** Index of the count of letters in the class data */
+	static final int DATA_SIZE = 0;
+	
+	/** Index of the count of wheels in the class data */
+	static final int DATA_WHEEL_COUNT = 1;
+	
+	/** Index of the turnable wheels (bit mask) in the class data */
+	static final int DATA_TURNABLE = 2;
+	
+	/** Index of the engageable wheels (bit mask) in the class data */
+	static final int DATA_ENGAGEABLE = 3;
+	
+	/** Index of whether the turnover mechanism is cog-wheel driven in the class data */
+	static final int DATA_COG_WHEEL = 4;
+	
+	/** Index of the entry forward table in the class data */
+	static final int DATA_ENTRY_FORWARD = 5;
+	
+	/** Index of the entry backward table in the class data */
+	static final int DATA_ENTRY_BACKWARD = 6;
+	
+	/** Index of the wheel forward tables in the class data [(wheel * size + position) * size + number] */
+	static final int DATA_FORWARD = 7;
+	
+	/** Index of the wheel backward tables in the class data [(wheel * size + position) * size + number] */
+	static final int DATA_BACKWARD = 8;
+	
+	/** Index of the wheel turnover positions in the class data [wheel * size + position] */
+	static final int DATA_TURNOVER = 9;
+	
+	/** Length of the class data */
+	private static final int DATA_LENGTH = 10;
+	
+	/** Max count of wheels (bits of the masks) */
+	private static final int MAX_WHEEL_COUNT = Integer.SIZE;
+	
+	/** Bytes of the template class (read lazily) */
+	private static volatile byte[] templateBytes;
+	
+	private HiddenEngines() {
+		// NOP
+	}
+	
+	/**
+	 * Returns whether the engines are defined as hidden classes.
+	 * 
+	 * @return true if defined
+	 */
+	static boolean isSupported() {
+		return true;
+	}
+	
+	/**
+	 * Returns the engine defined as a hidden class for the compiled machine.
+	 * 
+	 * @param compiled compiled machine
+	 * @return engine, or null if the hidden classes are not supported
+	 */
+	static Engine of(CompiledEnigma compiled) {
+		int size = compiled.size();
+		int count = compiled.wheelCount();
+		if (MAX_WHEEL_COUNT < count) {
+			return null;
+		}
+		
+		int tableSize = size * size;
+		int[] forward = new int[count * tableSize];
+		int[] backward = new int[count * tableSize];
+		boolean[] turnover = new boolean[count * size];
+		int turnable = 0;
+		int engageable = 0;
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(compiled.wheelForward(i), 0, forward, i * tableSize, tableSize);
+			System.arraycopy(compiled.wheelBackward(i), 0, backward, i * tableSize, tableSize);
+			System.arraycopy(compiled.turnover(i), 0, turnover, i * size, size);
+			if (compiled.isTurnable(i)) {
+				turnable |= 1 << i;
+			}
+			if (compiled.isEngageable(i)) {
+				engageable |= 1 << i;
+			}
+		}
+		
+		Object[] data = new Object[DATA_LENGTH];
+		data[DATA_SIZE] = size;
+		data[DATA_WHEEL_COUNT] = count;
+		data[DATA_TURNABLE] = turnable;
+		data[DATA_ENGAGEABLE] = engageable;
+		data[DATA_COG_WHEEL] = (compiled.turnoverMechanism() == TurnoverMechanism.COG_WHEEL);
+		data[DATA_ENTRY_FORWARD] = compiled.entryForward();
+		data[DATA_ENTRY_BACKWARD] = compiled.entryBackward();
+		data[DATA_FORWARD] = forward;
+		data[DATA_BACKWARD] = backward;
+		data[DATA_TURNOVER] = turnover;
+		
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(templateBytes(), data, true);
+			return (Engine)lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Hidden engine cannot be defined.", e);
+		}
+	}
+	
+	/**
+	 * Returns the bytes of the template class, reading them on the first call.
+	 * 
+	 * @return bytes of the template class
+	 */
+	private static byte[] templateBytes() {
+		byte[] bytes = templateBytes;
+		if (bytes == null) {
+			// The template class is not loaded, only its class file is read
+			try (InputStream in = HiddenEngines.class.getResourceAsStream("HiddenEngineTemplate.class")) {
+				if (in == null) {
+					throw new IllegalStateException("Template class is not found.");
+				}
+				bytes = in.readAllBytes();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			templateBytes = bytes;
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,63 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+/**
+ * Kernel of the lockstep translation.
+ * 
+ * This is the kernel for Java 17.
+ * If the incubator module jdk.incubator.vector is added (--add-modules jdk.incubator.vector),
+ * the permutation is applied by the Vector API, otherwise by the scalar loop.
+ */
+final class LockstepKernel {
+	
+	/** Whether the Vector API is available */
+	private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	
+	private LockstepKernel() {
+		// NOP
+	}
+	
+	/**
+	 * Returns whether the kernel is vectorized.
+	 * 
+	 * @return true if vectorized
+	 */
+	static boolean isVectorized() {
+		return VECTORIZED;
+	}
+	
+	/**
+	 * Applies the permutation to the numbers.
+	 * 
+	 * @param permutation permutation
+	 * @param src source numbers
+	 * @param dst destination numbers
+	 * @param offset offset of the numbers
+	 * @param count count of the numbers
+	 */
+	static void apply(byte[] permutation, byte[] src, byte[] dst, int offset, int count) {
+		if (VECTORIZED && permutation.length <= VectorKernel.LANES) {
+			VectorKernel.apply(permutation, src, dst, offset, count);
+			return;
+		}
+		
+		for (int i = offset; i < offset + count; i++) {
+			dst[i] = permutation[src[i]];
+		}
+	}
+}
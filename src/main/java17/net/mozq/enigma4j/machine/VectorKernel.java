@@ -0,0 +1,64 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel of the lockstep translation by the Vector API.
+ * 
+ * The permutation is held in one vector of the preferred species of the platform,
+ * and the numbers are permuted a vector at a time by selecting from it.
+ * A permutation longer than the lanes of the preferred species does not fit in one vector,
+ * so {@link LockstepKernel} falls back to the scalar loop for it.
+ * This class must be loaded only when the module jdk.incubator.vector is available.
+ */
+final class VectorKernel {
+	
+	/** Species, the widest one the hardware supports */
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	
+	/** Count of the lanes */
+	static final int LANES = SPECIES.length();
+	
+	private VectorKernel() {
+		// NOP
+	}
+	
+	/**
+	 * Applies the permutation to the numbers.
+	 * 
+	 * @param permutation permutation (up to {@link #LANES} letters)
+	 * @param src source numbers
+	 * @param dst destination numbers
+	 * @param offset offset of the numbers
+	 * @param count count of the numbers
+	 */
+	static void apply(byte[] permutation, byte[] src, byte[] dst, int offset, int count) {
+		ByteVector table = ByteVector.fromArray(SPECIES, permutation, 0, SPECIES.indexInRange(0, permutation.length));
+		
+		int end = offset + count;
+		int i = offset;
+		for (int bound = offset + SPECIES.loopBound(count); i < bound; i += LANES) {
+			ByteVector.fromArray(SPECIES, src, i).selectFrom(table).intoArray(dst, i);
+		}
+		for (; i < end; i++) {
+			dst[i] = permutation[src[i]];
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.machine.EnigmaMachineProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the discovery of {@link EnigmaMachineProvider}.
+ * 
+ * The provider is registered only to an isolated class loader, which loads its own copy of the library,
+ * so the machine names of the other tests are not changed.
+ */
+class EnigmaMachineProviderTest {
+	
+	/**
+	 * Runs the action with the isolated class loader where {@link TestMachineProvider} is registered.
+	 * 
+	 * @param action action
+	 * @throws Exception thrown when the action throws
+	 */
+	private static void withProvider(IsolatedAction action) throws Exception {
+		Path services = Files.createTempDirectory("enigma4j-services");
+		Path file = services.resolve("META-INF/services/" + EnigmaMachineProvider.class.getName());
+		Files.createDirectories(file.getParent());
+		Files.write(file, List.of(TestMachineProvider.class.getName()), StandardCharsets.UTF_8);
+		
+		URL[] urls = {
+				Enigma.class.getProtectionDomain().getCodeSource().getLocation(),
+				TestMachineProvider.class.getProtectionDomain().getCodeSource().getLocation(),
+				services.toUri().toURL(),
+		};
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		try (URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader())) {
+			// ServiceLoader.load(Class) looks up the context class loader
+			thread.setContextClassLoader(loader);
+			action.run(Class.forName(Enigma.class.getName(), true, loader));
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+			Files.delete(file);
+			Files.delete(file.getParent());
+			Files.delete(file.getParent().getParent());
+			Files.delete(services);
+		}
+	}
+	
+	/**
+	 * Invokes the public method by reflection.
+	 * 
+	 * @param target target instance, or the class for the static method
+	 * @param name method name
+	 * @param args arguments (Integer and Character for int and char)
+	 * @return return value
+	 * @throws Exception thrown when the method throws
+	 */
+	private static Object invoke(Object target, String name, Object... args) throws Exception {
+		Class<?> type = (target instanceof Class) ? (Class<?>)target : target.getClass();
+		Class<?>[] parameterTypes = new Class<?>[args.length];
+		for (int i = 0; i < args.length; i++) {
+			Class<?> argType = args[i].getClass();
+			parameterTypes[i] = (argType == Integer.class) ? int.class : (argType == Character.class) ? char.class : argType;
+		}
+		Method method = type.getMethod(name, parameterTypes);
+		return method.invoke((target instanceof Class) ? null : target, args);
+	}
+	
+	@Test void notRegistered() {
+		assertFalse(Enigma.machineNames().contains(TestMachineProvider.MACHINE_NAME));
+		assertNull(Enigma.machineSpec(TestMachineProvider.MACHINE_NAME));
+	}
+	
+	@Test void machineNames() throws Exception {
+		withProvider(enigma -> {
+			assertNotSame(Enigma.class, enigma);
+			
+			List<?> machineNames = (List<?>)invoke(enigma, "machineNames");
+			assertEquals(Enigma.machineNames().size() + 1, machineNames.size());
+			assertEquals(Enigma.machineNames(), machineNames.subList(0, machineNames.size() - 1));
+			assertEquals(TestMachineProvider.MACHINE_NAME, machineNames.get(machineNames.size() - 1));
+			
+			Object spec = invoke(enigma, "machineSpec", TestMachineProvider.MACHINE_NAME);
+			assertEquals(TestMachineProvider.MACHINE_NAME, invoke(spec, "name"));
+			assertSame(spec, invoke(enigma, "machineSpec", TestMachineProvider.MACHINE_NAME));
+		});
+	}
+	
+	@Test void machine() throws Exception {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG";
+		
+		String expected = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'B')
+				.rotor(1, Enigma.M3.III, 'C')
+				.plugboard("AN EZ HK")
+				.translate(plain);
+		
+		withProvider(enigma -> {
+			Object machine = invoke(enigma, "machine", TestMachineProvider.MACHINE_NAME);
+			invoke(machine, "reflector", "UKW-B");
+			invoke(machine, "rotor", 3, "I", 'A');
+			invoke(machine, "rotor", 2, "II", 'B');
+			invoke(machine, "rotor", 1, "III", 'C');
+			invoke(machine, "plugboard", "AN EZ HK");
+			
+			assertEquals(expected, invoke(machine, "translate", plain));
+		});
+	}
+	
+	/**
+	 * Action with the isolated class loader.
+	 */
+	@FunctionalInterface
+	private interface IsolatedAction {
+		
+		/**
+		 * Runs the action.
+		 * 
+		 * @param enigma {@link Enigma} class loaded by the isolated class loader
+		 * @throws Exception thrown when the action fails
+		 */
+		void run(Class<?> enigma) throws Exception;
+	}
+}
@@ -16,9 +16,12 @@
  */
 package net.mozq.enigma4j;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -77,4 +80,24 @@ class EnigmaTest {
 		
 		assertEquals("U", encrypted);
 	}
+	
+	@Test void machineNames() {
+		List<String> machineNames = Enigma.machineNames();
+		assertEquals(21, machineNames.size());
+		assertEquals("A-133", machineNames.get(0));
+		assertEquals("Spanish-S", machineNames.get(20));
+		
+		for (String machineName : machineNames) {
+			EnigmaMachineSpec spec = Enigma.machineSpec(machineName);
+			assertEquals(machineName, spec.name());
+			assertSame(spec, Enigma.machineSpec(machineName));
+		}
+	}
+	
+	@Test void machineSpec_BuiltIn() {
+		assertSame(Enigma.M3.spec(), Enigma.machineSpec("M3"));
+		assertNull(Enigma.machineSpec("Unknown"));
+		assertNull(Enigma.machineSpec(null));
+		assertThrows(IllegalArgumentException.class, () -> Enigma.machine("Unknown"));
+	}
 }
@@ -0,0 +1,58 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j;
+
+import java.util.List;
+
+import net.mozq.enigma4j.machine.EnigmaFeature;
+import net.mozq.enigma4j.machine.EnigmaMachineProvider;
+import net.mozq.enigma4j.machine.EnigmaMachineSpec;
+import net.mozq.enigma4j.machine.TurnoverMechanism;
+
+/**
+ * Provider of a machine for the tests.
+ * 
+ * This is not registered on the test class path, so the other tests see the built-in machines only.
+ * {@link EnigmaMachineProviderTest} registers it to an isolated class loader.
+ */
+public class TestMachineProvider implements EnigmaMachineProvider {
+	
+	/** Machine name */
+	static final String MACHINE_NAME = "Test-M3";
+	
+	@Override
+	public List<String> machineNames() {
+		return List.of(MACHINE_NAME);
+	}
+	
+	@Override
+	public EnigmaMachineSpec machineSpec(String machineName) {
+		if (!MACHINE_NAME.equals(machineName)) {
+			return null;
+		}
+		
+		return new EnigmaMachineSpec(
+				MACHINE_NAME,
+				Enigma.M3.spec().letters(),
+				Enigma.M3.ETW,
+				List.of(Enigma.M3.I, Enigma.M3.II, Enigma.M3.III),
+				null,
+				List.of(Enigma.M3.UKW_B),
+				TurnoverMechanism.REGULAR,
+				EnigmaFeature.PLUGBOARD);
+	}
+}
@@ -0,0 +1,112 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+class FlightRecorderEventTest {
+	
+	private static List<RecordedEvent> record(Runnable action) throws IOException {
+		Path file = Files.createTempFile("enigma4j", ".jfr");
+		try (Recording recording = new Recording()) {
+			for (String name : new String[] { "Translate", "Engine", "Plugboard", "UhrWiring", "Cache" }) {
+				recording.enable("net.mozq.enigma4j." + name).withoutThreshold();
+			}
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+			
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().startsWith("net.mozq.enigma4j."))
+					.collect(Collectors.toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+	
+	private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+		return events.stream()
+				.filter(e -> e.getEventType().getName().equals("net.mozq.enigma4j." + name))
+				.collect(Collectors.toList());
+	}
+	
+	@Test void disabledByDefault() {
+		for (Class<? extends jdk.jfr.Event> eventClass : List.of(TranslateEvent.class, EngineEvent.class, PlugboardEvent.class, UhrWiringEvent.class, CacheEvent.class)) {
+			assertFalse(EventType.getEventType(eventClass).isEnabled(), eventClass.getName());
+		}
+	}
+	
+	@Test void translate() throws IOException {
+		List<RecordedEvent> events = record(() -> {
+			EnigmaMachine machine = Enigma.I.machine()
+					.reflector(Enigma.I.UKW_B)
+					.rotor(3, Enigma.I.I, 'A')
+					.rotor(2, Enigma.I.II, 'A')
+					.rotor(1, Enigma.I.III, 'A')
+					.plugboard("AM FI");
+			machine.translate("HELLO, WORLD");
+			machine.translate("HELLO".repeat(100));
+			machine.translate("HELLO".repeat(40));
+			machine.tracker((m, s, p, ff, ft, bf, bt) -> {});
+			machine.translate("HELLO");
+			machine.session().skip(1);
+		});
+		
+		List<RecordedEvent> translates = events(events, "Translate");
+		assertEquals(4, translates.size());
+		RecordedEvent untraced = translates.get(0);
+		assertEquals("I", untraced.getString("model"));
+		assertFalse(untraced.getBoolean("traced"));
+		assertEquals(12, untraced.getLong("lettersIn"));
+		assertEquals(12, untraced.getLong("lettersOut"));
+		assertEquals(2, untraced.getLong("unsupportedLetters"));
+		assertFalse(translates.get(1).getBoolean("traced"));
+		assertFalse(translates.get(2).getBoolean("traced"));
+		assertTrue(translates.get(3).getBoolean("traced"));
+		
+		List<String> engines = events(events, "Engine").stream().map(e -> e.getString("engine")).collect(Collectors.toList());
+		// The first values are translated by the scrambler chain, the value which reaches 26^2 letters compiles the machine, and the session reuses it
+		assertEquals(List.of("ScramblerChain", "ScramblerChain", "Regular3Size26Engine", "ScramblerChain"), engines);
+		assertEquals(1, events(events, "Plugboard").size());
+		assertEquals(2, events(events, "Plugboard").get(0).getInt("pairs"));
+		assertFalse(events(events, "Cache").isEmpty());
+	}
+	
+	@Test void uhrWiring() throws IOException {
+		List<RecordedEvent> events = record(() -> Enigma.I.machine().plugboard("AB CD EF GH IJ KL MN OP QR ST", 27));
+		
+		assertEquals(1, events(events, "UhrWiring").size());
+		assertEquals(27, events(events, "UhrWiring").get(0).getInt("uhrSetting"));
+		assertEquals(27, events(events, "Plugboard").get(0).getInt("uhrSetting"));
+	}
+}
@@ -0,0 +1,82 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class AlphabetTest {
+	
+	@Test void of() {
+		assertSame(Alphabet.LETTERS_26, Alphabet.of("ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
+		assertSame(Alphabet.LETTERS_28, Alphabet.of("ABCDEFGHIJKLMNOPQRSTUVXYZÅÄÖ"));
+		assertSame(Alphabet.LETTERS_10, Alphabet.of("1234567890"));
+		assertEquals(Alphabet.LETTERS_26, Alphabet.of(new String("ABCDEFGHIJKLMNOPQRSTUVWXYZ")));
+		assertThrows(IllegalArgumentException.class, () -> Alphabet.of(null));
+	}
+	
+	@Test void numberOf() {
+		assertEquals(0, Alphabet.LETTERS_26.numberOf('A'));
+		assertEquals(25, Alphabet.LETTERS_26.numberOf('Z'));
+		assertEquals(-1, Alphabet.LETTERS_26.numberOf('a'));
+		assertEquals(-1, Alphabet.LETTERS_28.numberOf('W'));
+		assertEquals(27, Alphabet.LETTERS_28.numberOf('Ö'));
+		assertEquals(9, Alphabet.LETTERS_10.numberOf('0'));
+		
+		// The first one wins
+		Alphabet ukwD = Alphabet.of("A-ZXWVUTSRQPON-MLKIHGFEDCB");
+		assertEquals(1, ukwD.numberOf('-'));
+		
+		// Out of the Latin-1 range
+		Alphabet cyrillic = Alphabet.of("АБВ");
+		assertEquals(2, cyrillic.numberOf('В'));
+		assertEquals(-1, cyrillic.numberOf('в'));
+	}
+	
+	@Test void letterOf() {
+		assertEquals('Å', Alphabet.LETTERS_28.letterOf(25));
+		assertThrows(IllegalArgumentException.class, () -> Alphabet.LETTERS_26.letterOf(-1));
+		assertThrows(IllegalArgumentException.class, () -> Alphabet.LETTERS_26.letterOf(26));
+	}
+	
+	@Test void encode() {
+		Alphabet alphabet = Alphabet.LETTERS_28;
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			char letter = (char)c;
+			char upperLetter = Character.toUpperCase(letter);
+			int number = alphabet.letters().indexOf(upperLetter);
+			int code = alphabet.encode(letter);
+			if (number == -1) {
+				assertEquals(-1, code);
+				assertFalse(alphabet.contains(letter));
+			} else {
+				assertEquals(number, Alphabet.number(code));
+				assertTrue(alphabet.contains(letter));
+				
+				char expected = (letter != upperLetter) ? Character.toLowerCase(upperLetter) : upperLetter;
+				assertEquals(expected, alphabet.decode(number, code));
+			}
+		}
+		
+		Alphabet cyrillic = Alphabet.of("АБВ");
+		int code = cyrillic.encode('б');
+		assertEquals(1, Alphabet.number(code));
+		assertEquals('в', cyrillic.decode(2, code));
+		assertEquals('В', cyrillic.decode(2, cyrillic.encode('Б')));
+	}
+}
@@ -0,0 +1,113 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class CompiledEnigmaTest {
+	
+	@Test void translate_M3() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.III.ring('A'), 'U')
+				.rotor(2, Enigma.M3.VI.ring('H'), 'Z')
+				.rotor(1, Enigma.M3.VIII.ring('M'), 'V')
+				.plugboard("AN EZ HK IJ LR MQ OT PV SW UX");
+		CompiledEnigma compiled = enigmaMachine.compile();
+		
+		String plain = "SECRETMESSAGE";
+		String encrypted = compiled.translate(plain);
+		assertEquals(enigmaMachine.translate(plain), encrypted);
+		assertEquals(plain, compiled.translate(encrypted));
+	}
+	
+	@Test void translate_Snapshot() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		CompiledEnigma compiled = enigmaMachine.compile();
+		enigmaMachine.rotor(1, Enigma.M3.III.ring('C'), 'A');
+		
+		assertEquals("TGLQUVSVJGUQI", compiled.translate("SECRETMESSAGE"));
+	}
+	
+	@Test void translate_AllMachines() {
+		Random random = new Random(20211017L);
+		for (String machineName : Enigma.machineNames()) {
+			for (int n = 0; n < 20; n++) {
+				EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+				String plain = TestMachines.text(enigmaMachine.spec(), 2000, random);
+				
+				CompiledEnigma compiled = enigmaMachine.compile();
+				for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+					assertEquals(TestMachines.translateByChain(enigmaMachine, plain, handling), compiled.translate(plain, handling), machineName + ": " + handling);
+				}
+			}
+		}
+	}
+	
+	@Test void translate_Exception() {
+		CompiledEnigma compiled = Enigma.Z.machine().compile();
+		
+		UnsupportedLetterException e = assertThrows(UnsupportedLetterException.class, () -> compiled.translate("123A", UnsupportedLetterHandling.EXCEPTION));
+		assertEquals('A', e.getLetter());
+	}
+	
+	@Test void translate_Traced() {
+		Random random = new Random(20211107L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 2000, random);
+			
+			String untraced = enigmaMachine.translate(plain);
+			int[] count = new int[1];
+			enigmaMachine.tracker((m, s, p, ff, ft, bf, bt) -> count[0]++);
+			assertEquals(untraced, enigmaMachine.translate(plain), machineName);
+			assertTrue(0 < count[0], machineName);
+			
+			enigmaMachine.tracker(null);
+			assertEquals(untraced, enigmaMachine.translate(plain), machineName);
+		}
+	}
+	
+	@Test void translate_SettingsChanged() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		assertEquals("TGLQUVSVJGUQI", enigmaMachine.translate("SECRETMESSAGE"));
+		
+		// The compiled machine of the previous settings is not used
+		enigmaMachine.plugboard("AB");
+		assertEquals(enigmaMachine.compile().translate("SECRETMESSAGE"), enigmaMachine.translate("SECRETMESSAGE"));
+		assertNotEquals("TGLQUVSVJGUQI", enigmaMachine.translate("SECRETMESSAGE"));
+		enigmaMachine.plugboard("");
+		assertEquals("TGLQUVSVJGUQI", enigmaMachine.translate("SECRETMESSAGE"));
+		enigmaMachine.skip(1);
+		assertEquals(enigmaMachine.compile().translate("SECRETMESSAGE"), enigmaMachine.translate("SECRETMESSAGE"));
+		assertNotEquals("TGLQUVSVJGUQI", enigmaMachine.translate("SECRETMESSAGE"));
+	}
+}
@@ -0,0 +1,150 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class EngineTest {
+	
+	@Test void generated() {
+		Random random = new Random(20211027L);
+		assertTrue(TestMachines.machine("I", random).compile().engine() instanceof Regular3Size26Engine);
+		assertTrue(TestMachines.machine("A-133", random).compile().engine() instanceof Regular3Size28Engine);
+		assertTrue(TestMachines.machine("G-312", random).compile().engine() instanceof CogWheel3Size26Engine);
+		assertTrue(TestMachines.machine("Z", random).compile().engine() instanceof Regular3TurnableSize10Engine);
+		
+		EnigmaMachine m4 = Enigma.M4.machine()
+				.reflector(Enigma.M4.UKW_B)
+				.rotor(4, Enigma.M4.BETA, 'A')
+				.rotor(3, Enigma.M4.II, 'B')
+				.rotor(2, Enigma.M4.IV, 'C')
+				.rotor(1, Enigma.M4.I, 'D');
+		assertTrue(m4.compile().engine() instanceof Regular4Size26Engine);
+		assertEquals(m4.translate("SECRETMESSAGE".repeat(100)), m4.compile().translate("SECRETMESSAGE".repeat(100)));
+		
+		// Empty slot
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(2, Enigma.M3.II, 'A')
+				.rotor(1, Enigma.M3.III, 'A');
+		assertTrue(enigmaMachine.compile().engine() instanceof GenericEngine);
+	}
+	
+	@Test void generated_AllMachines() {
+		// The generated layouts cover the standard wheel layout of every predefined model:
+		// the turnable rotors in the slot 1 to 3, and the fixed rotor in the slot 4
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = Enigma.machine(machineName);
+			EnigmaMachineSpec spec = enigmaMachine.spec();
+			List<String> rotorNames = new ArrayList<>(spec.rotorNames());
+			for (int slotNo = 1; slotNo <= spec.rotorSlotCount(); slotNo++) {
+				boolean turnable = (slotNo <= 3);
+				String rotorName = rotorNames.stream()
+						.filter(name -> spec.rotor(name).isTurnable() == turnable)
+						.findFirst()
+						.orElseThrow();
+				rotorNames.remove(rotorName);
+				enigmaMachine.rotor(slotNo, rotorName, 1);
+			}
+			enigmaMachine.reflector(spec.reflectorNames().get(0));
+			
+			assertNotNull(GeneratedEngines.of(enigmaMachine.compile()), machineName);
+		}
+	}
+	
+	@Test void sized() {
+		Random random = new Random(20211106L);
+		assertTrue(GeneratedEngines.of(TestMachines.machine("M3", random).compile()) instanceof Regular3Size26Engine);
+		assertTrue(GeneratedEngines.of(TestMachines.machine("A-133", random).compile()) instanceof Regular3Size28Engine);
+		assertTrue(GeneratedEngines.of(TestMachines.machine("Z", random).compile()) instanceof Regular3TurnableSize10Engine);
+		assertTrue(GeneratedEngines.of(TestMachines.machine("G-312", random).compile()) instanceof CogWheel3Size26Engine);
+		assertTrue(GeneratedEngines.of(Enigma.M4.machine()
+				.reflector(Enigma.M4.UKW_B)
+				.rotor(4, Enigma.M4.BETA, 'A')
+				.rotor(3, Enigma.M4.II, 'B')
+				.rotor(2, Enigma.M4.IV, 'C')
+				.rotor(1, Enigma.M4.I, 'D')
+				.compile()) instanceof Regular4Size26Engine);
+		
+		// Empty slot
+		assertNull(GeneratedEngines.of(Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(2, Enigma.M3.II, 'A')
+				.rotor(1, Enigma.M3.III, 'A')
+				.compile()));
+	}
+	
+	@Test void translate_AllMachines() {
+		Random random = new Random(20211028L);
+		for (String machineName : Enigma.machineNames()) {
+			for (int n = 0; n < 10; n++) {
+				EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+				String plain = TestMachines.text(enigmaMachine.spec(), 2000, random);
+				
+				CompiledEnigma compiled = enigmaMachine.compile();
+				String expected = TestMachines.translateByChain(enigmaMachine, plain, UnsupportedLetterHandling.PATH_THROUGH);
+				assertEquals(expected, compiled.translate(plain), machineName);
+				assertEquals(expected, translate(new GenericEngine(compiled), compiled, plain), machineName);
+				if (GeneratedEngines.of(compiled) != null) {
+					assertEquals(expected, translate(GeneratedEngines.of(compiled), compiled, plain), machineName);
+				}
+			}
+		}
+	}
+	
+	@Test void hidden_AllMachines() {
+		// The hidden class engines are defined on Java 17 or later, otherwise the specialized engines are used
+		Random random = new Random(20211108L);
+		for (String machineName : Enigma.machineNames()) {
+			for (int n = 0; n < 5; n++) {
+				EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+				String plain = TestMachines.text(enigmaMachine.spec(), 2000, random);
+				
+				CompiledEnigma compiled = enigmaMachine.compileHidden();
+				// The name of a hidden class is the name of the template and a suffix
+				assertEquals(HiddenEngines.isSupported(), compiled.engine().getClass().getName().startsWith("net.mozq.enigma4j.machine.HiddenEngineTemplate/"), machineName);
+				assertEquals(TestMachines.translateByChain(enigmaMachine, plain, UnsupportedLetterHandling.PATH_THROUGH), compiled.translate(plain), machineName);
+			}
+		}
+	}
+	
+	private static String translate(Engine engine, CompiledEnigma compiled, String value) {
+		Alphabet alphabet = compiled.alphabet();
+		int[] positions = compiled.positions();
+		
+		StringBuilder sb = new StringBuilder();
+		for (char letter : value.toCharArray()) {
+			int code = alphabet.encode(letter);
+			if (code == -1) {
+				sb.append(letter);
+				continue;
+			}
+			
+			engine.turn(positions);
+			sb.append(alphabet.decode(engine.scramble(positions, Alphabet.number(code)), code));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,263 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class EnigmaSessionTest {
+	
+	@Test void translate_Pieces() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		EnigmaSession session = enigmaMachine.session();
+		
+		assertEquals("TGLQUV", session.translate("SECRET"));
+		assertEquals("SVJGUQI", session.translate("MESSAGE"));
+		assertEquals(13, session.count());
+		
+		session.reset();
+		assertEquals("TGLQUVSVJGUQI", session.translate("SECRETMESSAGE"));
+	}
+	
+	@Test void translate_AllMachines() {
+		Random random = new Random(20211019L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 3000, random);
+			
+			EnigmaSession session = enigmaMachine.session();
+			StringBuilder sb = new StringBuilder();
+			for (int start = 0; start < plain.length(); ) {
+				int end = Math.min(plain.length(), start + random.nextInt(100));
+				sb.append(session.translate(plain.subSequence(start, end)));
+				start = end;
+			}
+			assertEquals(enigmaMachine.translate(plain), sb.toString(), machineName);
+		}
+	}
+	
+	@Test void positions() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'D')
+				.rotor(1, Enigma.M3.III, 'U');
+		EnigmaSession session = enigmaMachine.session();
+		assertEquals(List.of(21, 4, 1), session.rotorPositions());
+		
+		// Double stepping: ADU -> ADV -> AEW -> BFX
+		session.translate("A");
+		assertEquals(List.of(22, 4, 1), session.rotorPositions());
+		session.translate("A");
+		assertEquals(List.of(23, 5, 1), session.rotorPositions());
+		session.translate("A");
+		assertEquals(List.of(24, 6, 2), session.rotorPositions());
+		assertEquals(1, session.reflectorPosition());
+		
+		// Unsupported letters don't turn the rotors
+		session.translate("1 2 3");
+		assertEquals(List.of(24, 6, 2), session.rotorPositions());
+		assertEquals(List.of(21, 4, 1), enigmaMachine.rotorPositions());
+	}
+	
+	@Test void translate_Stream() throws Exception {
+		EnigmaMachine enigmaMachine = Enigma.I.machine()
+				.reflector(Enigma.I.UKW_A)
+				.rotor(3, Enigma.I.I.ring(1), 2)
+				.rotor(2, Enigma.I.II.ring(2), 1)
+				.rotor(1, Enigma.I.III.ring(3), 26)
+				.plugboard("AB CD EF GH IJ KL MN OP QR ST", 4);
+		String plain = "Secret message, ".repeat(2000);
+		
+		StringWriter out = new StringWriter();
+		enigmaMachine.session().translate(new StringReader(plain), out, UnsupportedLetterHandling.REMOVAL);
+		assertEquals(enigmaMachine.translate(plain, UnsupportedLetterHandling.REMOVAL), out.toString());
+	}
+	
+	@Test void translate_ByteBuffer() {
+		Random random = new Random(20211023L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 3000, random);
+			
+			for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+				String expected = enigmaMachine.translate(plain, handling);
+				
+				// Direct buffers, the destination is smaller than the source
+				ByteBuffer src = ByteBuffer.allocateDirect(plain.length());
+				src.put(plain.getBytes(StandardCharsets.ISO_8859_1)).flip();
+				ByteBuffer dst = ByteBuffer.allocateDirect(100);
+				ByteBuffer out = ByteBuffer.allocate(plain.length());
+				
+				EnigmaSession session = enigmaMachine.session();
+				int consumed = 0;
+				while (src.hasRemaining()) {
+					TranslationResult result = session.translate(src, dst, handling);
+					consumed += result.consumed();
+					assertEquals(result.produced(), dst.position());
+					dst.flip();
+					out.put(dst);
+					dst.clear();
+				}
+				assertEquals(plain.length(), consumed);
+				assertEquals(expected, new String(out.array(), 0, out.position(), StandardCharsets.ISO_8859_1), machineName);
+			}
+		}
+	}
+	
+	@Test void translate_InPlace() {
+		Random random = new Random(20211024L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 3000, random);
+			
+			for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+				String expected = enigmaMachine.translate(plain, handling);
+				
+				byte[] buf = ("##" + plain).getBytes(StandardCharsets.ISO_8859_1);
+				TranslationResult result = enigmaMachine.translate(buf, 2, plain.length(), handling);
+				assertEquals(plain.length(), result.consumed());
+				assertEquals(expected.length(), result.produced());
+				assertEquals("##" + expected, new String(buf, 0, 2 + result.produced(), StandardCharsets.ISO_8859_1), machineName);
+			}
+		}
+	}
+	
+	@Test void translate_InPlace_Settings() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'A')
+				.rotor(1, Enigma.M3.III, 'A');
+		
+		// The compiled machine is reused until the settings are changed
+		for (char position : new char[] { 'A', 'B' }) {
+			enigmaMachine.rotor(1, Enigma.M3.III, position);
+			String expected = enigmaMachine.translate("AAAAA");
+			for (int n = 0; n < 2; n++) {
+				byte[] buf = "AAAAA".getBytes(StandardCharsets.US_ASCII);
+				enigmaMachine.translate(buf, 0, buf.length);
+				assertEquals(expected, new String(buf, StandardCharsets.US_ASCII));
+			}
+		}
+		
+		// The skip changes the positions
+		String expected = enigmaMachine.session().translate("AAAAAAAAAA").substring(5);
+		assertEquals(expected, enigmaMachine.skip(5).session().translate("AAAAA"));
+	}
+	
+	@Test void translate_Bytes_Exception() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'A')
+				.rotor(1, Enigma.M3.III, 'A');
+		EnigmaSession session = enigmaMachine.session();
+		
+		ByteBuffer src = ByteBuffer.wrap("AAA1AA".getBytes(StandardCharsets.US_ASCII));
+		ByteBuffer dst = ByteBuffer.allocate(10);
+		assertThrows(UnsupportedLetterException.class, () -> session.translate(src, dst, UnsupportedLetterHandling.EXCEPTION));
+		assertEquals(3, src.position());
+		assertEquals(3, dst.position());
+		assertEquals(3, session.count());
+		assertEquals("BDZ", new String(dst.array(), 0, 3, StandardCharsets.US_ASCII));
+	}
+	
+	@Test void translate_Overloads() throws Exception {
+		Random random = new Random(20211025L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 300, random);
+			
+			for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+				String expected = enigmaMachine.translate(plain, handling);
+				EnigmaSession session = enigmaMachine.session();
+				
+				char[] dst = new char[plain.length() + 2];
+				int produced = session.translate(plain, 0, plain.length(), dst, 2, handling);
+				assertEquals(expected, new String(dst, 2, produced), machineName);
+				
+				session.reset();
+				char[] buf = plain.toCharArray();
+				produced = session.translate(buf, 0, buf.length, buf, 0, handling);
+				assertEquals(expected, new String(buf, 0, produced), machineName);
+				
+				session.reset();
+				StringBuilder sb = new StringBuilder();
+				assertEquals(expected.length(), session.translate(plain, sb, handling));
+				assertEquals(expected, sb.toString(), machineName);
+				
+				session.reset();
+				sb.setLength(0);
+				assertEquals(expected.length(), session.translate(plain.toCharArray(), 0, plain.length(), sb, handling));
+				assertEquals(expected, sb.toString(), machineName);
+			}
+		}
+	}
+	
+	@Test void translate_NoAllocation() throws Exception {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+		
+		EnigmaMachine enigmaMachine = TestMachines.machine("M4", new Random(20211026L));
+		EnigmaSession session = enigmaMachine.session();
+		String message = "Short message, number 1.";
+		char[] src = message.toCharArray();
+		char[] dst = new char[message.length()];
+		StringBuilder sb = new StringBuilder(message.length());
+		
+		long threadId = Thread.currentThread().getId();
+		long allocated = 0;
+		for (int round = 0; round < 2; round++) {
+			// The first round is the warm up
+			allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < 100000; i++) {
+				session.reset();
+				session.translate(message, 0, message.length(), dst, 0, UnsupportedLetterHandling.PATH_THROUGH);
+				session.reset();
+				session.translate(src, 0, src.length, dst, 0, UnsupportedLetterHandling.REMOVAL);
+				session.reset();
+				sb.setLength(0);
+				session.translate(message, sb, UnsupportedLetterHandling.PATH_THROUGH);
+				session.reset();
+				sb.setLength(0);
+				session.translate(src, 0, src.length, sb, UnsupportedLetterHandling.PATH_THROUGH);
+			}
+			allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+		}
+		
+		// Far less than one byte per translation
+		assertTrue(allocated < 4096, "allocated: " + allocated);
+	}
+}
@@ -0,0 +1,56 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class LockstepTranslatorTest {
+	
+	@Test void translate_AllMachines() {
+		Random random = new Random(20211101L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			List<String> messages = new ArrayList<>();
+			for (int i = 0; i < 70; i++) {
+				messages.add(TestMachines.text(enigmaMachine.spec(), random.nextInt(200), random));
+			}
+			
+			LockstepTranslator translator = LockstepTranslator.of(enigmaMachine);
+			for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+				List<String> translated = translator.translate(messages, handling);
+				for (int i = 0; i < messages.size(); i++) {
+					assertEquals(enigmaMachine.translate(messages.get(i), handling), translated.get(i), machineName);
+				}
+			}
+		}
+	}
+	
+	@Test void translate_Exception() {
+		EnigmaMachine enigmaMachine = TestMachines.machine("M3", new Random(20211102L));
+		LockstepTranslator translator = LockstepTranslator.of(enigmaMachine);
+		assertThrows(UnsupportedLetterException.class, () -> translator.translate(List.of("ABC", "D E"), UnsupportedLetterHandling.EXCEPTION));
+		assertEquals(List.of(), translator.translate(List.of(), UnsupportedLetterHandling.EXCEPTION));
+	}
+}
@@ -0,0 +1,90 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class MultiKeyTranslatorTest {
+	
+	@Test void translate() {
+		Random random = new Random(20211029L);
+		for (String machineName : Enigma.machineNames()) {
+			List<EnigmaMachine> machines = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				machines.add(TestMachines.machine(machineName, random));
+			}
+			String plain = TestMachines.text(machines.get(0).spec(), 500, random);
+			
+			MultiKeyTranslator translator = MultiKeyTranslator.of(machines);
+			assertEquals(20, translator.keyCount());
+			for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+				List<String> translated = translator.translate(plain, handling);
+				for (int i = 0; i < machines.size(); i++) {
+					assertEquals(machines.get(i).translate(plain, handling), translated.get(i), machineName);
+				}
+			}
+		}
+	}
+	
+	@Test void scores() {
+		Random random = new Random(20211030L);
+		List<EnigmaMachine> machines = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			machines.add(TestMachines.machine("M3", random));
+		}
+		String plain = "The quick brown fox jumps over the lazy dog. ".repeat(20);
+		String encrypted = machines.get(17).translate(plain);
+		
+		MultiKeyTranslator translator = MultiKeyTranslator.of(machines);
+		int[] matchCounts = translator.matchCount(encrypted, plain);
+		double[] indexes = translator.indexOfCoincidence(encrypted);
+		
+		int letterCount = plain.replaceAll("[^A-Za-z]", "").length();
+		assertEquals(letterCount, matchCounts[17]);
+		for (int i = 0; i < machines.size(); i++) {
+			if (i != 17) {
+				assertTrue(matchCounts[i] < letterCount / 4, "key: " + i);
+				assertTrue(indexes[i] < indexes[17], "key: " + i);
+			}
+		}
+		
+		// Index of coincidence of the plain text
+		int[] counts = new int[26];
+		for (char letter : plain.toUpperCase().replaceAll("[^A-Z]", "").toCharArray()) {
+			counts[letter - 'A']++;
+		}
+		long sum = 0;
+		for (int count : counts) {
+			sum += (long)count * (count - 1);
+		}
+		assertEquals((double)sum / ((long)letterCount * (letterCount - 1)), indexes[17], 1e-12);
+	}
+	
+	@Test void of_Mismatch() {
+		Random random = new Random(20211031L);
+		assertThrows(IllegalArgumentException.class, () -> MultiKeyTranslator.of(List.of()));
+		assertThrows(IllegalArgumentException.class, () -> MultiKeyTranslator.of(List.of(TestMachines.machine("M3", random), TestMachines.machine("Z", random))));
+	}
+}
@@ -0,0 +1,86 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class ParallelTranslatorTest {
+	
+	@Test void translateParallel_AllMachines() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Random random = new Random(20211021L);
+			for (String machineName : Enigma.machineNames()) {
+				EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+				String plain = TestMachines.text(enigmaMachine.spec(), 300000, random);
+				
+				for (UnsupportedLetterHandling handling : new UnsupportedLetterHandling[] { UnsupportedLetterHandling.PATH_THROUGH, UnsupportedLetterHandling.REMOVAL }) {
+					assertEquals(TestMachines.translateByChain(enigmaMachine, plain, handling), enigmaMachine.translateParallel(plain, handling, pool), machineName + " " + handling);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test void translateParallel_Exception() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			EnigmaMachine enigmaMachine = TestMachines.machine("M3", new Random(20211021L));
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 300000; i++) {
+				sb.append((char)('A' + i % 26));
+			}
+			sb.setCharAt(100000, '1');
+			sb.setCharAt(250000, '2');
+			
+			UnsupportedLetterException e = assertThrows(UnsupportedLetterException.class, () -> enigmaMachine.translateParallel(sb, UnsupportedLetterHandling.EXCEPTION, pool));
+			assertEquals('1', e.getLetter());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test void translateParallel_File() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		Path source = Files.createTempFile("enigma4j", ".txt");
+		Path target = Files.createTempFile("enigma4j", ".txt");
+		try {
+			Random random = new Random(20211022L);
+			EnigmaMachine enigmaMachine = TestMachines.machine("A-133", random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 300000, random);
+			Files.writeString(source, plain, StandardCharsets.UTF_8);
+			
+			enigmaMachine.translateParallel(source, target, StandardCharsets.UTF_8, UnsupportedLetterHandling.REMOVAL, pool);
+			assertEquals(enigmaMachine.translate(plain, UnsupportedLetterHandling.REMOVAL), Files.readString(target, StandardCharsets.UTF_8));
+		} finally {
+			Files.deleteIfExists(source);
+			Files.deleteIfExists(target);
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class PermutationTableTest {
+	
+	@Test void translate_AllMachines() {
+		Random random = new Random(20211018L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 5000, random);
+			
+			PermutationTable table = PermutationTable.of(enigmaMachine);
+			assertEquals(TestMachines.translateByChain(enigmaMachine, plain, UnsupportedLetterHandling.PATH_THROUGH), table.translate(plain), machineName);
+			assertEquals(TestMachines.translateByChain(enigmaMachine, plain, UnsupportedLetterHandling.REMOVAL), table.translate(plain, UnsupportedLetterHandling.REMOVAL), machineName);
+		}
+	}
+	
+	@Test void stateCount() {
+		assertEquals(26 * 26 * 26, PermutationTable.of(Enigma.M3.machine()
+				.rotor(3, Enigma.M3.I).rotor(2, Enigma.M3.II).rotor(1, Enigma.M3.III)).stateCount());
+		assertEquals(26 * 26 * 26, PermutationTable.of(Enigma.M4.machine()
+				.rotor(4, Enigma.M4.BETA).rotor(3, Enigma.M4.I).rotor(2, Enigma.M4.II).rotor(1, Enigma.M4.III)).stateCount());
+		assertEquals(26 * 26 * 26 * 26, PermutationTable.of(Enigma.D.machine()
+				.rotor(3, Enigma.D.I).rotor(2, Enigma.D.II).rotor(1, Enigma.D.III)).stateCount());
+		assertEquals(10 * 10 * 10 * 10, PermutationTable.of(Enigma.Z.machine()
+				.rotor(3, Enigma.Z.I).rotor(2, Enigma.Z.II).rotor(1, Enigma.Z.III)).stateCount());
+	}
+	
+	@Test void cache() {
+		PermutationTable.clearCache();
+		
+		EnigmaMachine m1 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		EnigmaMachine m2 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'X')
+				.rotor(2, Enigma.M3.II.ring('B'), 'Y')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		EnigmaMachine m3 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z')
+				.plugboard("AB");
+		
+		PermutationTable t1 = PermutationTable.of(m1);
+		PermutationTable t2 = PermutationTable.of(m2);
+		PermutationTable t3 = PermutationTable.of(m3);
+		assertTrue(t1.isShared(t2));
+		assertFalse(t1.isShared(t3));
+		
+		assertEquals("TGLQUVSVJGUQI", t1.translate("SECRETMESSAGE"));
+		assertEquals(m2.translate("SECRETMESSAGE"), t2.translate("SECRETMESSAGE"));
+		
+		PermutationTable.setCacheCapacity(1);
+		try {
+			assertFalse(PermutationTable.isCached(m1));
+			assertTrue(PermutationTable.isCached(m3));
+			
+			PermutationTable.of(m1);
+			assertTrue(PermutationTable.isCached(m2));
+			assertFalse(PermutationTable.isCached(m3));
+		} finally {
+			PermutationTable.setCacheCapacity(8);
+		}
+	}
+	
+	@Test void concurrentBuild() throws Exception {
+		PermutationTable.clearCache();
+		
+		EnigmaMachine enigmaMachine = Enigma.I.machine()
+				.reflector(Enigma.I.UKW_A)
+				.rotor(3, Enigma.I.I.ring(1), 2)
+				.rotor(2, Enigma.I.II.ring(2), 1)
+				.rotor(1, Enigma.I.III.ring(3), 26)
+				.plugboard("AB CD EF GH IJ KL MN OP QR ST", 4);
+		String plain = "SECRETMESSAGE".repeat(100);
+		String expected = enigmaMachine.translate(plain);
+		
+		Thread[] threads = new Thread[8];
+		String[] results = new String[threads.length];
+		for (int i = 0; i < threads.length; i++) {
+			int n = i;
+			threads[i] = new Thread(() -> results[n] = PermutationTable.of(enigmaMachine).translate(plain));
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		for (String result : results) {
+			assertEquals(expected, result);
+		}
+	}
+}
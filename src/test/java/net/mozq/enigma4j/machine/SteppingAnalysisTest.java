@@ -0,0 +1,89 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class SteppingAnalysisTest {
+	
+	@Test void period_AllMachines() {
+		Random random = new Random(20211105L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			SteppingAnalysis analysis = SteppingAnalysis.of(enigmaMachine);
+			
+			// Press keys until the state repeats
+			EnigmaSession session = enigmaMachine.session();
+			char letter = enigmaMachine.spec().letters().charAt(0);
+			Map<Integer, Long> offsets = new HashMap<>();
+			while (!offsets.containsKey(session.state())) {
+				offsets.put(session.state(), session.count());
+				assertEquals(session.state(), analysis.stateAt(session.count()), machineName);
+				session.translate(String.valueOf(letter));
+			}
+			long prePeriod = offsets.get(session.state());
+			long period = session.count() - prePeriod;
+			
+			assertEquals(prePeriod, analysis.prePeriod(), machineName);
+			assertEquals(period, analysis.period(), machineName);
+			assertEquals(period < analysis.stateCount(), analysis.isShortened(), machineName);
+			assertTrue(analysis.prePeriod() <= analysis.maxPrePeriod(), machineName);
+			for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+				assertEquals(entry.getValue().longValue(), analysis.offsetOf(entry.getKey()), machineName);
+			}
+			if (offsets.size() < analysis.stateCount()) {
+				int state = 0;
+				while (offsets.containsKey(state)) {
+					state++;
+				}
+				assertEquals(-1, analysis.offsetOf(state), machineName);
+			}
+		}
+	}
+	
+	@Test void period_DoubleStepping() {
+		SteppingAnalysis analysis = SteppingAnalysis.of(Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'A')
+				.rotor(1, Enigma.M3.III, 'A'));
+		assertEquals(26 * 26 * 26, analysis.stateCount());
+		assertEquals(26 * 25 * 26, analysis.period());
+		assertEquals(0, analysis.prePeriod());
+		assertTrue(analysis.isShortened());
+		
+		// The middle rotor at the notch is not reached by the stepping
+		SteppingAnalysis tail = SteppingAnalysis.of(Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'E')
+				.rotor(1, Enigma.M3.III, 'A'));
+		assertTrue(0 < tail.prePeriod());
+		assertEquals(26 * 25 * 26, tail.period());
+		
+		assertThrows(IllegalArgumentException.class, () -> tail.stateAt(-1));
+		assertThrows(IllegalArgumentException.class, () -> tail.offsetOf(26 * 26 * 26));
+	}
+}
@@ -0,0 +1,195 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+
+class SteppingTableTest {
+	
+	@Test void skip_AllMachines() {
+		Random random = new Random(20211020L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			CompiledEnigma compiled = enigmaMachine.compile();
+			SteppingTable steppingTable = compiled.steppingTable();
+			
+			// Replay
+			int[] positions = compiled.positions();
+			int start = steppingTable.encode(positions);
+			for (int count = 0; count < 40000; count++) {
+				if (count % 997 == 0 || count < 100) {
+					assertEquals(steppingTable.encode(positions), steppingTable.skip(start, count), machineName + ": " + count);
+				}
+				compiled.turn(positions);
+				assertEquals(steppingTable.encode(positions), steppingTable.next(steppingTable.skip(start, count)), machineName);
+			}
+		}
+	}
+	
+	@Test void encode_WithoutTable() {
+		Random random = new Random(20211022L);
+		for (String machineName : Enigma.machineNames()) {
+			CompiledEnigma compiled = TestMachines.machine(machineName, random).compile();
+			int[] positions = compiled.positions();
+			for (int count = 0; count < 1000; count++) {
+				compiled.turn(positions);
+				assertEquals(compiled.steppingTable().encode(positions), SteppingTable.encode(compiled, positions), machineName);
+			}
+			
+			EnigmaSession session = compiled.session();
+			session.translate(String.valueOf(compiled.alphabet().letters().charAt(0)).repeat(500));
+			int state = session.state();
+			session.seek(500);
+			assertEquals(state, session.state(), machineName);
+		}
+	}
+	
+	@Test void skip_Session() {
+		Random random = new Random(20211021L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 1000, random);
+			String skipped = plain.replaceAll("[^" + enigmaMachine.spec().letters() + "]", "").substring(0, 300);
+			
+			EnigmaSession session = enigmaMachine.session();
+			session.translate(skipped);
+			String expected = session.translate(plain);
+			
+			session.seek(skipped.length());
+			assertEquals(expected, session.translate(plain), machineName);
+			assertEquals(expected, enigmaMachine.skip(skipped.length()).translate(plain), machineName);
+		}
+	}
+	
+	@Test void skip_Large() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'D')
+				.rotor(1, Enigma.M3.III, 'U');
+		
+		// The period of the regular stepping with double stepping is 26 * 25 * 26
+		EnigmaSession session = enigmaMachine.session();
+		session.skip(10);
+		String expected = session.translate("SECRETMESSAGE");
+		
+		session.seek(10 + 26L * 25 * 26 * 1000000000L);
+		assertEquals(expected, session.translate("SECRETMESSAGE"));
+		assertEquals(10 + 26L * 25 * 26 * 1000000000L + 13, session.count());
+		
+		assertThrows(IllegalArgumentException.class, () -> session.skip(-1));
+	}
+	
+	@Test void rewind_AllMachines() {
+		Random random = new Random(20211104L);
+		for (String machineName : Enigma.machineNames()) {
+			EnigmaMachine enigmaMachine = TestMachines.machine(machineName, random);
+			String plain = TestMachines.text(enigmaMachine.spec(), 3000, random);
+			
+			EnigmaSession session = enigmaMachine.session();
+			EnigmaSession expected = enigmaMachine.session();
+			session.translate(plain);
+			for (int i = 0; i < 50; i++) {
+				long count = random.nextInt((int)session.count() + 1);
+				session.rewind(count);
+				expected.seek(session.count());
+				assertEquals(expected.state(), session.state(), machineName + ": " + session.count());
+				assertEquals(expected.rotorPositions(), session.rotorPositions(), machineName);
+				assertEquals(expected.reflectorPosition(), session.reflectorPosition(), machineName);
+				
+				session.skip(random.nextInt(500));
+			}
+		}
+	}
+	
+	@Test void rewind_DoubleStepping() {
+		EnigmaMachine enigmaMachine = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I, 'A')
+				.rotor(2, Enigma.M3.II, 'E')
+				.rotor(1, Enigma.M3.III, 'A');
+		
+		// AEA -> BFB (double stepping), and AEA is not on the stepping cycle
+		EnigmaSession session = enigmaMachine.session();
+		String encrypted = session.translate("SECRETMESSAGE");
+		for (int count = 1; count <= 13; count++) {
+			session.rewind(count);
+			assertEquals(13 - count, session.count());
+			assertEquals(encrypted.substring(13 - count), session.translate("SECRETMESSAGE".substring(13 - count)));
+		}
+		session.rewind(13);
+		assertEquals(List.of(1, 5, 1), session.rotorPositions());
+		assertEquals(enigmaMachine.session().state(), session.state());
+		
+		assertThrows(IllegalArgumentException.class, () -> session.rewind(1));
+		assertThrows(IllegalArgumentException.class, () -> session.rewind(-1));
+	}
+	
+	@Test void cache() {
+		EnigmaMachine m1 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.I.ring('A'), 'B')
+				.rotor(2, Enigma.M3.II.ring('B'), 'A')
+				.rotor(1, Enigma.M3.III.ring('C'), 'Z');
+		EnigmaMachine m2 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_C)
+				.rotor(3, Enigma.M3.I.ring('X'), 'Q')
+				.rotor(2, Enigma.M3.II.ring('Y'), 'E')
+				.rotor(1, Enigma.M3.III.ring('Z'), 'V')
+				.plugboard("AB");
+		EnigmaMachine m3 = Enigma.M3.machine()
+				.reflector(Enigma.M3.UKW_B)
+				.rotor(3, Enigma.M3.II, 'B')
+				.rotor(2, Enigma.M3.I, 'A')
+				.rotor(1, Enigma.M3.III, 'Z');
+		
+		// Shared between the machines of the same wheel order
+		assertSame(m1.compile().steppingTable(), m2.compile().steppingTable());
+		assertNotSame(m1.compile().steppingTable(), m3.compile().steppingTable());
+		
+		// State
+		EnigmaSession session = m1.session();
+		assertEquals(25 + 26 * 0 + 26 * 26 * 1, session.state());
+		session.translate("A");
+		assertEquals(0 + 26 * 0 + 26 * 26 * 1, session.state());
+		session.reset();
+		assertEquals(25 + 26 * 0 + 26 * 26 * 1, session.state());
+	}
+	
+	@Test void state_TurnableReflector() {
+		EnigmaMachine enigmaMachine = Enigma.Z.machine()
+				.reflector(Enigma.Z.UKW, 10)
+				.rotor(3, Enigma.Z.I, 10)
+				.rotor(2, Enigma.Z.II, 10)
+				.rotor(1, Enigma.Z.III, 10);
+		
+		// The reflector is the highest digit
+		EnigmaSession session = enigmaMachine.session();
+		assertEquals(9999, session.state());
+		assertEquals(10000, enigmaMachine.compile().steppingTable().stateCount());
+		session.translate("1");
+		assertEquals(session.reflectorPosition() - 1, session.state() / 1000);
+		assertEquals(session.rotorPosition(1) - 1, session.state() % 10);
+	}
+}
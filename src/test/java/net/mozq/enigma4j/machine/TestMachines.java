@@ -0,0 +1,134 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.machine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.scrambler.Reflector;
+import net.mozq.enigma4j.scrambler.WiringPair;
+
+/**
+ * Random machines and texts for the tests.
+ */
+class TestMachines {
+	
+	/** UKW-D letters without the fixed pair */
+	private static final String UKW_D_LETTERS = "AZXWVUTSRQPONMLKIHGFEDCB";
+	
+	private TestMachines() {
+		// NOP
+	}
+	
+	/**
+	 * Creates a randomly configured machine.
+	 * 
+	 * @param machineName machine name
+	 * @param random random
+	 * @return machine
+	 */
+	static EnigmaMachine machine(String machineName, Random random) {
+		EnigmaMachine machine = Enigma.machine(machineName);
+		EnigmaMachineSpec spec = machine.spec();
+		int size = spec.letters().length();
+		
+		List<String> rotorNames = new ArrayList<>(spec.rotorNames());
+		Collections.shuffle(rotorNames, random);
+		for (int slotNo = 1; slotNo <= spec.rotorSlotCount(); slotNo++) {
+			machine.rotor(slotNo, rotorNames.get(slotNo - 1), 1 + random.nextInt(size), 1 + random.nextInt(size));
+		}
+		
+		if (spec.hasFeature(EnigmaFeature.UKW_D) && random.nextBoolean()) {
+			machine.reflector(Reflector.UKW_D(pairs(UKW_D_LETTERS, 12, random)));
+		} else {
+			List<String> reflectorNames = spec.reflectorNames();
+			String reflectorName = reflectorNames.get(random.nextInt(reflectorNames.size()));
+			machine.reflector(reflectorName, 1 + random.nextInt(size), 1 + random.nextInt(size));
+		}
+		
+		if (spec.hasFeature(EnigmaFeature.UHR) && random.nextBoolean()) {
+			machine.plugboard(pairs(spec.letters(), 10, random), random.nextInt(40));
+		} else if (spec.hasFeature(EnigmaFeature.PLUGBOARD)) {
+			machine.plugboard(pairs(spec.letters(), random.nextInt(11), random));
+		}
+		
+		return machine;
+	}
+	
+	/**
+	 * Creates a random text which contains lower case and unsupported letters.
+	 * 
+	 * @param spec machine specification
+	 * @param length length
+	 * @param random random
+	 * @return text
+	 */
+	static String text(EnigmaMachineSpec spec, int length, Random random) {
+		String letters = spec.letters();
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			int r = random.nextInt(10);
+			char letter = letters.charAt(random.nextInt(letters.length()));
+			if (r < 6) {
+				sb.append(letter);
+			} else if (r < 8) {
+				sb.append(Character.toLowerCase(letter));
+			} else if (r < 9) {
+				sb.append(' ');
+			} else {
+				sb.append(".,-?1a".charAt(random.nextInt(6)));
+			}
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Translates the text value by the scrambler chain, independently of the compiled machine.
+	 * 
+	 * A tracker which does nothing is set during the translation, so the machine is not compiled.
+	 * 
+	 * @param machine machine
+	 * @param value text value
+	 * @param unsupportedLetterHandling unsupported letter handling
+	 * @return translated value
+	 */
+	static String translateByChain(EnigmaMachine machine, String value, UnsupportedLetterHandling unsupportedLetterHandling) {
+		machine.tracker((m, s, p, ff, ft, bf, bt) -> { });
+		try {
+			return machine.translate(value, unsupportedLetterHandling);
+		} finally {
+			machine.tracker(null);
+		}
+	}
+	
+	private static List<WiringPair> pairs(String letters, int count, Random random) {
+		List<Character> list = new ArrayList<>();
+		for (char letter : letters.toCharArray()) {
+			list.add(letter);
+		}
+		Collections.shuffle(list, random);
+		
+		List<WiringPair> pairs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			pairs.add(WiringPair.of(list.get(i * 2), list.get(i * 2 + 1)));
+		}
+		return pairs;
+	}
+}
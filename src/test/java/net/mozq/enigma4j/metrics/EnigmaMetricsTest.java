@@ -0,0 +1,128 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+import net.mozq.enigma4j.machine.UnsupportedLetterException;
+import net.mozq.enigma4j.machine.UnsupportedLetterHandling;
+
+class EnigmaMetricsTest {
+	
+	private static EnigmaMachine machine() {
+		return Enigma.I.machine()
+				.reflector(Enigma.I.UKW_B)
+				.rotor(3, Enigma.I.I, 'A')
+				.rotor(2, Enigma.I.II, 'A')
+				.rotor(1, Enigma.I.III, 'A');
+	}
+	
+	@Test void translate() {
+		EnigmaMetrics metrics = EnigmaMetrics.global();
+		metrics.snapshotAndReset();
+		metrics.setEnabled(true);
+		try {
+			EnigmaMachine machine = machine();
+			machine.translate("HELLO, WORLD");
+			machine.translate("HELLO, WORLD", UnsupportedLetterHandling.REMOVAL);
+			assertThrows(UnsupportedLetterException.class, () -> machine.translate("HELLO, WORLD", UnsupportedLetterHandling.EXCEPTION));
+			machine.tracker((m, s, p, ff, ft, bf, bt) -> {});
+			machine.translate("HELLO");
+		} finally {
+			metrics.setEnabled(false);
+		}
+		
+		MetricsSnapshot.Model model = metrics.snapshotAndReset().model("I");
+		assertEquals(4, model.messages());
+		assertEquals(10 + 10 + 5, model.letters());
+		assertEquals(2, model.unsupportedLetters(UnsupportedLetterHandling.PATH_THROUGH));
+		assertEquals(2, model.unsupportedLetters(UnsupportedLetterHandling.REMOVAL));
+		assertEquals(1, model.unsupportedLetters(UnsupportedLetterHandling.EXCEPTION));
+		assertEquals(4, model.latencyCount());
+		assertTrue(0 < model.latencyPercentile(100));
+		
+		assertEquals(0, metrics.snapshot().model("I").messages());
+	}
+	
+	@Test void translate_Disabled() {
+		EnigmaMetrics metrics = EnigmaMetrics.global();
+		metrics.snapshotAndReset();
+		
+		machine().translate("HELLO");
+		
+		MetricsSnapshot.Model model = metrics.snapshot().model("I");
+		assertTrue(model == null || model.messages() == 0);
+	}
+	
+	@Test void record_Concurrent() throws Exception {
+		EnigmaMetrics metrics = new EnigmaMetrics();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10000; i++) {
+						metrics.record("M4", 26, 0, UnsupportedLetterHandling.PATH_THROUGH, i);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		MetricsSnapshot.Model model = metrics.snapshot().model("M4");
+		assertEquals(80000, model.messages());
+		assertEquals(80000 * 26, model.letters());
+		assertEquals(80000, model.latencyCount());
+		
+		// The median of 0..9999 is 4999, within the relative error of the bucket
+		long median = model.latencyPercentile(50);
+		assertTrue(4999 <= median && median <= 4999 + 4999 / 16, "median: " + median);
+	}
+	
+	@Test void export() {
+		EnigmaMetrics metrics = new EnigmaMetrics();
+		List<MetricsSnapshot> exported = new ArrayList<>();
+		MetricsExporter exporter = exported::add;
+		metrics.addExporter(exporter);
+		
+		metrics.record("I", 5, 0, UnsupportedLetterHandling.PATH_THROUGH, 100);
+		MetricsSnapshot snapshot = metrics.export();
+		
+		assertEquals(1, exported.size());
+		assertSame(snapshot, exported.get(0));
+		assertEquals(1, snapshot.model("I").messages());
+		assertEquals(0, metrics.snapshot().model("I").messages());
+		
+		assertTrue(metrics.removeExporter(exporter));
+		metrics.export();
+		assertEquals(1, exported.size());
+	}
+}
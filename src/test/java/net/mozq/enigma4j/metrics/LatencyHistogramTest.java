@@ -0,0 +1,57 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+	
+	@Test void indexOf() {
+		for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE }) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(LatencyHistogram.lowerBoundOf(index) <= value, "value: " + value);
+			assertTrue(value <= LatencyHistogram.upperBoundOf(index), "value: " + value);
+		}
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+	}
+	
+	@Test void bounds() {
+		for (int index = 1; index < LatencyHistogram.BUCKET_COUNT; index++) {
+			assertEquals(LatencyHistogram.upperBoundOf(index - 1) + 1, LatencyHistogram.lowerBoundOf(index));
+			assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.lowerBoundOf(index)));
+			
+			// Relative error
+			long lower = LatencyHistogram.lowerBoundOf(index);
+			long upper = LatencyHistogram.upperBoundOf(index);
+			assertTrue(upper - lower <= lower / 16 || lower < 16, "index: " + index);
+		}
+	}
+	
+	@Test void record() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(100);
+		histogram.record(100);
+		histogram.record(-1);
+		
+		long[] counts = histogram.counts(true);
+		assertEquals(2, counts[LatencyHistogram.indexOf(100)]);
+		assertEquals(1, counts[0]);
+		assertEquals(0, histogram.counts(false)[0]);
+	}
+}
@@ -0,0 +1,100 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+class AggregatingScrambleTrackerTest {
+	
+	@Test void track() {
+		AggregatingScrambleTracker tracker = new AggregatingScrambleTracker();
+		EnigmaMachine machine = Enigma.I.machine()
+				.reflector(Enigma.I.UKW_B)
+				.rotor(3, Enigma.I.I, 'A')
+				.rotor(2, Enigma.I.II, 'A')
+				.rotor(1, Enigma.I.III, 'A')
+				.plugboard("AM")
+				.tracker(tracker);
+		machine.translate("AAAB");
+		
+		AggregatingScrambleTracker.Snapshot snapshot = tracker.snapshot();
+		assertTrue(snapshot.scramblerNames().containsAll(Arrays.asList("Plugboard", "I", "II", "III", "UKW-B")));
+		
+		// Plugboard contacts are the input letters
+		long[] plugboard = snapshot.forwardCounts("Plugboard");
+		assertEquals(3, plugboard[0]);
+		assertEquals(1, plugboard[1]);
+		assertEquals(4, snapshot.totalCount("Plugboard") - Arrays.stream(plugboard).sum());
+		
+		// Reflector is counted in the forward direction only
+		assertEquals(4, Arrays.stream(snapshot.forwardCounts("UKW-B")).sum());
+		assertEquals(0, Arrays.stream(snapshot.backwardCounts("UKW-B")).sum());
+		
+		for (String rotor : Arrays.asList("I", "II", "III")) {
+			assertEquals(4, Arrays.stream(snapshot.forwardCounts(rotor)).sum());
+			assertEquals(4, Arrays.stream(snapshot.backwardCounts(rotor)).sum());
+		}
+		
+		long total = snapshot.scramblerNames().stream().mapToLong(snapshot::totalCount).sum();
+		assertEquals(4 * 11, total);
+		
+		assertEquals(0, snapshot.forwardCounts("UNKNOWN").length);
+	}
+	
+	@Test void track_RotorContacts() {
+		AggregatingScrambleTracker tracker = new AggregatingScrambleTracker();
+		EnigmaMachine machine = Enigma.I.machine()
+				.reflector(Enigma.I.UKW_B)
+				.rotor(3, Enigma.I.I, 'A')
+				.rotor(2, Enigma.I.II, 'A')
+				.rotor(1, Enigma.I.III, 'A')
+				.tracker(tracker);
+		machine.translate("AAAA");
+		
+		// The right rotor steps B, C, D, E, so the letter A enters the contacts 1, 2, 3, 4
+		long[] right = tracker.snapshot().forwardCounts("III");
+		assertArrayEquals(new long[] { 0, 1, 1, 1, 1, 0 }, Arrays.copyOf(right, 6));
+	}
+	
+	@Test void snapshotAndReset() {
+		AggregatingScrambleTracker tracker = new AggregatingScrambleTracker();
+		EnigmaMachine machine = Enigma.I.machine()
+				.reflector(Enigma.I.UKW_B)
+				.rotor(3, Enigma.I.I, 'A')
+				.rotor(2, Enigma.I.II, 'A')
+				.rotor(1, Enigma.I.III, 'A')
+				.tracker(tracker);
+		machine.translate("HELLO");
+		
+		AggregatingScrambleTracker.Snapshot first = tracker.snapshotAndReset();
+		assertEquals(5, Arrays.stream(first.forwardCounts("UKW-B")).sum());
+		
+		AggregatingScrambleTracker.Snapshot second = tracker.snapshot();
+		assertEquals(first.scramblerNames(), second.scramblerNames());
+		assertEquals(0, second.totalCount("UKW-B"));
+		
+		machine.translate("WORLD");
+		assertEquals(5, Arrays.stream(tracker.snapshot().forwardCounts("UKW-B")).sum());
+	}
+}
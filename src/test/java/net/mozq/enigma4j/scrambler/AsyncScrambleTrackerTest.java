@@ -0,0 +1,118 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+class AsyncScrambleTrackerTest {
+	
+	private static EnigmaMachine machine() {
+		return Enigma.I.machine()
+				.reflector(Enigma.I.UKW_A)
+				.rotor(3, Enigma.I.II.ring(24), 'A')
+				.rotor(2, Enigma.I.I.ring(13), 'B')
+				.rotor(1, Enigma.I.III.ring(22), 'L')
+				.plugboard("AM FI NV PS TU WZ");
+	}
+	
+	@Test void track() throws InterruptedException {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG".repeat(50);
+		
+		List<String> expected = new ArrayList<>();
+		EnigmaMachine syncMachine = machine();
+		syncMachine.tracker((m, s, p, ff, ft, bf, bt) -> expected.add(s.name() + p + ":" + ff + ft + bf + bt));
+		String encrypted = syncMachine.translate(plain);
+		
+		List<String> actual = new ArrayList<>();
+		List<EnigmaMachine> machines = new ArrayList<>();
+		EnigmaMachine asyncMachine = machine();
+		try (AsyncScrambleTracker tracker = new AsyncScrambleTracker(64, OverflowPolicy.BLOCK, (m, s, p, ff, ft, bf, bt) -> {
+			actual.add(s.name() + p + ":" + ff + ft + bf + bt);
+			machines.add(m);
+		})) {
+			asyncMachine.tracker(tracker);
+			assertEquals(encrypted, asyncMachine.translate(plain));
+			tracker.flush();
+			
+			assertEquals(expected.size(), tracker.forwardedCount());
+			assertEquals(0, tracker.droppedCount());
+			assertEquals(64, tracker.capacity());
+		}
+		
+		assertEquals(expected, actual);
+		assertTrue(machines.stream().allMatch(m -> m == asyncMachine));
+	}
+	
+	@Test void track_Drop() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		int[] count = new int[1];
+		AsyncScrambleTracker tracker = new AsyncScrambleTracker(10, OverflowPolicy.DROP, (m, s, p, ff, ft, bf, bt) -> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			count[0]++;
+		});
+		assertEquals(16, tracker.capacity());
+		
+		// The consumer is blocked by the tracker, so the events overflow (11 events per letter)
+		EnigmaMachine enigmaMachine = machine().tracker(tracker);
+		enigmaMachine.translate("SECRETMESSAGE".repeat(10));
+		assertTrue(0 < tracker.droppedCount());
+		
+		latch.countDown();
+		tracker.close();
+		assertEquals(tracker.forwardedCount(), count[0]);
+		assertEquals(130 * 11, tracker.forwardedCount() + tracker.droppedCount());
+		assertThrows(IllegalStateException.class, () -> enigmaMachine.translate("A"));
+	}
+	
+	@Test void track_Failure() {
+		List<Integer> positions = new ArrayList<>();
+		try (AsyncScrambleTracker tracker = new AsyncScrambleTracker((m, s, p, ff, ft, bf, bt) -> {
+			throw new IllegalStateException();
+		}, (m, s, p, ff, ft, bf, bt) -> positions.add(p))) {
+			machine().tracker(tracker).translate("A");
+			tracker.close();
+			
+			assertEquals(11, tracker.failureCount());
+			assertEquals(11, positions.size());
+		}
+	}
+	
+	@Test void pack() {
+		long event = AsyncScrambleTracker.pack(28, -1, 0, 4094, 1);
+		assertEquals(28, AsyncScrambleTracker.unpack(event, 0));
+		assertEquals(-1, AsyncScrambleTracker.unpack(event, 1));
+		assertEquals(0, AsyncScrambleTracker.unpack(event, 2));
+		assertEquals(4094, AsyncScrambleTracker.unpack(event, 3));
+		assertEquals(1, AsyncScrambleTracker.unpack(event, 4));
+		
+		assertThrows(IllegalArgumentException.class, () -> new AsyncScrambleTracker(0, OverflowPolicy.DROP));
+		assertThrows(IllegalArgumentException.class, () -> new AsyncScrambleTracker(16, null));
+	}
+}
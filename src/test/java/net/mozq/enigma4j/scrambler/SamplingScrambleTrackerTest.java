@@ -0,0 +1,85 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+class SamplingScrambleTrackerTest {
+	
+	private static EnigmaMachine machine() {
+		return Enigma.I.machine()
+				.reflector(Enigma.I.UKW_A)
+				.rotor(3, Enigma.I.II.ring(24), 'A')
+				.rotor(2, Enigma.I.I.ring(13), 'B')
+				.rotor(1, Enigma.I.III.ring(22), 'L')
+				.plugboard("AM FI NV PS TU WZ");
+	}
+	
+	@Test void track() {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG";
+		
+		List<String> all = new ArrayList<>();
+		EnigmaMachine fullMachine = machine();
+		fullMachine.tracker((m, s, p, ff, ft, bf, bt) -> all.add(s.name() + p + ":" + ff + ft + bf + bt));
+		fullMachine.translate(plain);
+		
+		int eventsPerKeyPress = all.size() / plain.length();
+		assertEquals(11, eventsPerKeyPress);
+		
+		List<String> sampled = new ArrayList<>();
+		SamplingScrambleTracker tracker = new SamplingScrambleTracker((m, s, p, ff, ft, bf, bt) -> sampled.add(s.name() + p + ":" + ff + ft + bf + bt), 5);
+		EnigmaMachine sampledMachine = machine();
+		sampledMachine.tracker(tracker);
+		sampledMachine.translate(plain);
+		
+		List<String> expected = new ArrayList<>();
+		for (int keyPress = 0; keyPress < plain.length(); keyPress += 5) {
+			expected.addAll(all.subList(keyPress * eventsPerKeyPress, (keyPress + 1) * eventsPerKeyPress));
+		}
+		assertEquals(expected, sampled);
+		assertEquals(plain.length(), tracker.keyPressCount());
+		assertEquals(5, tracker.interval());
+	}
+	
+	@Test void track_IntervalOne() {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG";
+		
+		int[] count = new int[2];
+		EnigmaMachine fullMachine = machine();
+		fullMachine.tracker((m, s, p, ff, ft, bf, bt) -> count[0]++);
+		fullMachine.translate(plain);
+		
+		EnigmaMachine sampledMachine = machine();
+		sampledMachine.tracker(new SamplingScrambleTracker((m, s, p, ff, ft, bf, bt) -> count[1]++, 1));
+		sampledMachine.translate(plain);
+		
+		assertEquals(count[0], count[1]);
+	}
+	
+	@Test void constructor_Invalid() {
+		assertThrows(IllegalArgumentException.class, () -> new SamplingScrambleTracker(null, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SamplingScrambleTracker((m, s, p, ff, ft, bf, bt) -> {}, 0));
+	}
+}
@@ -0,0 +1,131 @@
+/*!
+ * enigma4j
+ * Copyright 2021 Mozq
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.mozq.enigma4j.scrambler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.mozq.enigma4j.Enigma;
+import net.mozq.enigma4j.machine.EnigmaMachine;
+
+class ScrambleTraceRecorderTest {
+	
+	private static EnigmaMachine machine() {
+		return Enigma.I.machine()
+				.reflector(Enigma.I.UKW_A)
+				.rotor(3, Enigma.I.II.ring(24), 'A')
+				.rotor(2, Enigma.I.I.ring(13), 'B')
+				.rotor(1, Enigma.I.III.ring(22), 'L')
+				.plugboard("AM FI NV PS TU WZ");
+	}
+	
+	private static List<String> expected(String plain) {
+		List<String> expected = new ArrayList<>();
+		EnigmaMachine machine = machine();
+		machine.tracker((m, s, p, ff, ft, bf, bt) -> expected.add(s.name() + p + ":" + ff + "," + ft + "," + bf + "," + bt));
+		machine.translate(plain);
+		return expected;
+	}
+	
+	@Test void replay() throws IOException {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG";
+		List<String> expected = expected(plain);
+		
+		try (ScrambleTraceRecorder recorder = new ScrambleTraceRecorder()) {
+			EnigmaMachine machine = machine();
+			machine.tracker(recorder);
+			machine.translate(plain);
+			
+			assertEquals(expected.size(), recorder.eventCount());
+			assertFalse(recorder.isSpilled());
+			
+			List<String> actual = new ArrayList<>();
+			List<EnigmaMachine> machines = new ArrayList<>();
+			recorder.replay((m, s, p, ff, ft, bf, bt) -> {
+				actual.add(s.name() + p + ":" + ff + "," + ft + "," + bf + "," + bt);
+				machines.add(m);
+			});
+			assertEquals(expected, actual);
+			assertTrue(machines.stream().allMatch(m -> m == machine));
+			
+			List<String> range = new ArrayList<>();
+			recorder.replay((m, s, p, ff, ft, bf, bt) -> range.add(s.name() + p + ":" + ff + "," + ft + "," + bf + "," + bt), 11, 22);
+			assertEquals(expected.subList(11, 22), range);
+			
+			int scramblerIndex = recorder.scramblerIndexAt(0);
+			assertEquals("Plugboard", recorder.scramblerOf(scramblerIndex).name());
+			assertSame(machine, recorder.machineOf(scramblerIndex));
+			assertEquals(expected.get(0), recorder.scramblerOf(scramblerIndex).name() + recorder.positionAt(0) + ":"
+					+ recorder.numFwFromAt(0) + "," + recorder.numFwToAt(0) + "," + recorder.numBwFromAt(0) + "," + recorder.numBwToAt(0));
+			
+			assertThrows(IllegalArgumentException.class, () -> recorder.positionAt(expected.size()));
+			assertThrows(IllegalArgumentException.class, () -> recorder.replay((m, s, p, ff, ft, bf, bt) -> {}, 0, expected.size() + 1));
+		}
+	}
+	
+	@Test void replay_Spilled() throws IOException {
+		String plain = "THEQUICKBROWNFOXJUMPSOVERTHELAZYDOG".repeat(400);
+		List<String> expected = expected(plain);
+		
+		for (long spillThreshold : new long[] { 0, 65536 }) {
+			Path spillFile = Files.createTempFile("enigma4j-trace", ".bin");
+			try (ScrambleTraceRecorder recorder = new ScrambleTraceRecorder(spillFile, spillThreshold)) {
+				EnigmaMachine machine = machine();
+				machine.tracker(recorder);
+				machine.translate(plain);
+				
+				assertEquals(expected.size(), recorder.eventCount());
+				assertTrue(recorder.isSpilled());
+				
+				List<String> actual = new ArrayList<>();
+				recorder.replay((m, s, p, ff, ft, bf, bt) -> actual.add(s.name() + p + ":" + ff + "," + ft + "," + bf + "," + bt));
+				assertEquals(expected, actual);
+			}
+			assertFalse(Files.exists(spillFile));
+		}
+	}
+	
+	@Test void clear() throws IOException {
+		try (ScrambleTraceRecorder recorder = new ScrambleTraceRecorder()) {
+			EnigmaMachine machine = machine();
+			machine.tracker(recorder);
+			machine.translate("HELLO");
+			recorder.clear();
+			assertEquals(0, recorder.eventCount());
+			assertEquals(0, recorder.scramblerCount());
+			
+			machine.translate("WORLD");
+			assertEquals(5 * 11, recorder.eventCount());
+		}
+	}
+	
+	@Test void track_Closed() throws IOException {
+		ScrambleTraceRecorder recorder = new ScrambleTraceRecorder();
+		recorder.close();
+		
+		EnigmaMachine machine = machine();
+		machine.tracker(recorder);
+		assertThrows(IllegalStateException.class, () -> machine.translate("A"));
+	}
+}